@@ -0,0 +1,443 @@
+package com.smartiq.backend.card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable, versioned in-memory view of the card bank. Cards are addressed by ordinal (position in
+ * id order) and indexed by language, topic, difficulty, category, source and pool key so both the
+ * deck and the pool engines can select without going back to the database.
+ */
+final class CardCatalog {
+
+    static final List<String> DECK_SOURCES = List.of(
+            "smartiq-v2",
+            "smartiq-human",
+            "smartiq-verified"
+    );
+    static final String DECK_FALLBACK_LANGUAGE = "en";
+
+    private static final int MAX_DECK_RESOLUTIONS = 4096;
+
+    private static final int[] NO_CARDS = new int[0];
+    private static final CardCatalog EMPTY = of(List.of());
+
+    private final long version;
+    private final CardResponse[] cards;
+    private final Map<String, Integer> ordinalById;
+    private final Map<String, int[]> byLanguage;
+    private final Map<String, int[]> byTopic;
+    private final Map<String, int[]> byDifficulty;
+    private final Map<String, int[]> byCategory;
+    private final Map<String, int[]> bySource;
+    private final Map<QuestionPoolKey, int[]> byPoolKey;
+    private final Map<DeckKey, DeckPool> deckPools;
+    private final Set<String> deckLanguages;
+    private final Map<QuestionPoolKey, int[]> wildcardMatches = new ConcurrentHashMap<>();
+    private final Map<QuestionPoolKey, WildcardPoolView> wildcardViews = new ConcurrentHashMap<>();
+    private final Map<DeckKey, DeckResolution> deckResolutions = new ConcurrentHashMap<>();
+
+    private CardCatalog(CardResponse[] cards) {
+        this.cards = cards;
+        this.version = fingerprint(cards);
+
+        Map<String, Integer> ordinals = new HashMap<>(cards.length * 2);
+        Map<String, List<Integer>> languages = new HashMap<>();
+        Map<String, List<Integer>> topics = new HashMap<>();
+        Map<String, List<Integer>> difficulties = new HashMap<>();
+        Map<String, List<Integer>> categories = new HashMap<>();
+        Map<String, List<Integer>> sources = new HashMap<>();
+        Map<QuestionPoolKey, List<Integer>> poolKeys = new HashMap<>();
+        Map<DeckKey, List<CardResponse>> decks = new HashMap<>();
+
+        for (int ordinal = 0; ordinal < cards.length; ordinal++) {
+            CardResponse card = cards[ordinal];
+            ordinals.put(card.id(), ordinal);
+            addTo(languages, key(card.language()), ordinal);
+            addTo(topics, key(card.topic()), ordinal);
+            addTo(difficulties, key(card.difficulty()), ordinal);
+            addTo(categories, NextRandomCardService.resolveCategory(card), ordinal);
+            addTo(sources, key(card.source()), ordinal);
+            addTo(poolKeys, new QuestionPoolKey(key(card.topic()), key(card.difficulty()), key(card.language())), ordinal);
+
+            if (DECK_SOURCES.contains(key(card.source()))) {
+                decks.computeIfAbsent(new DeckKey(key(card.language()), null), ignored -> new ArrayList<>()).add(card);
+                decks.computeIfAbsent(new DeckKey(key(card.language()), key(card.topic())), ignored -> new ArrayList<>()).add(card);
+            }
+        }
+
+        this.ordinalById = Map.copyOf(ordinals);
+        this.byLanguage = toArrays(languages);
+        this.byTopic = toArrays(topics);
+        this.byDifficulty = toArrays(difficulties);
+        this.byCategory = toArrays(categories);
+        this.bySource = toArrays(sources);
+        this.byPoolKey = toArrays(poolKeys);
+
+        Map<DeckKey, DeckPool> frozenDecks = new HashMap<>();
+        decks.forEach((deckKey, deck) -> frozenDecks.put(deckKey, DeckPool.of(deck)));
+        this.deckPools = Map.copyOf(frozenDecks);
+
+        Set<String> languagesWithDecks = new HashSet<>();
+        frozenDecks.keySet().forEach(deckKey -> languagesWithDecks.add(deckKey.language()));
+        this.deckLanguages = Set.copyOf(languagesWithDecks);
+    }
+
+    static CardCatalog empty() {
+        return EMPTY;
+    }
+
+    static CardCatalog of(Collection<Card> entities) {
+        CardResponse[] cards = entities.stream()
+                .filter(card -> card.getId() != null)
+                .map(CardCatalog::toImmutable)
+                .sorted(Comparator.comparing(CardResponse::id))
+                .toArray(CardResponse[]::new);
+        return new CardCatalog(cards);
+    }
+
+    long version() {
+        return version;
+    }
+
+    int size() {
+        return cards.length;
+    }
+
+    CardResponse card(int ordinal) {
+        return cards[ordinal];
+    }
+
+    int ordinalOf(String cardId) {
+        Integer ordinal = cardId == null ? null : ordinalById.get(cardId);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Deck candidates for the given language and optional topic, restricted to {@link #DECK_SOURCES}.
+     */
+    DeckPool deckPool(String language, String topic) {
+        return deckPools.getOrDefault(new DeckKey(key(language), key(topic)), DeckPool.EMPTY);
+    }
+
+    /**
+     * Whether any deck card exists for the language and optional topic.
+     */
+    boolean hasDeckCards(String language, String topic) {
+        String languageKey = key(language);
+        if (languageKey == null || !deckLanguages.contains(languageKey)) {
+            return false;
+        }
+        return deckPools.containsKey(new DeckKey(languageKey, key(topic)));
+    }
+
+    /**
+     * Deck for the language and optional topic, falling back to {@link #DECK_FALLBACK_LANGUAGE} when the requested
+     * language has no cards, or null when neither has any. Outcomes, including known-empty combinations, are memoized
+     * for the lifetime of this snapshot so repeat requests for a thin locale resolve with a single lookup.
+     */
+    DeckResolution resolveDeck(String language, String topic) {
+        DeckKey deckKey = new DeckKey(key(language), key(topic));
+        DeckResolution cached = deckResolutions.get(deckKey);
+        if (cached == null) {
+            cached = computeResolution(deckKey, language);
+            if (deckResolutions.size() < MAX_DECK_RESOLUTIONS) {
+                deckResolutions.putIfAbsent(deckKey, cached);
+            }
+        }
+        return cached.pool().isEmpty() ? null : cached;
+    }
+
+    int[] byLanguage(String language) {
+        return lookup(byLanguage, key(language));
+    }
+
+    int[] byTopic(String topic) {
+        return lookup(byTopic, key(topic));
+    }
+
+    int[] byDifficulty(String difficulty) {
+        return lookup(byDifficulty, key(difficulty));
+    }
+
+    int[] byCategory(String category) {
+        return lookup(byCategory, category == null ? null : category.trim().toUpperCase(Locale.ROOT));
+    }
+
+    int[] bySource(String source) {
+        return lookup(bySource, key(source));
+    }
+
+    int[] byPoolKey(QuestionPoolKey key) {
+        return lookup(byPoolKey, key);
+    }
+
+    List<QuestionPoolKey> poolKeys() {
+        return List.copyOf(byPoolKey.keySet());
+    }
+
+    /**
+     * Concrete pool keys covered by the wildcard {@code key}, memoized for the lifetime of this snapshot. A key naming
+     * a topic, difficulty or language the catalog does not hold is answered empty straight away and not memoized, so
+     * request-supplied values cannot grow the memo; every other result is memoized, empty ones included, which bounds
+     * it by the combinations of values the catalog holds.
+     */
+    WildcardPoolView wildcardView(QuestionPoolKey key) {
+        WildcardPoolView cached = wildcardViews.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (!holdsValues(key)) {
+            return WildcardPoolView.EMPTY;
+        }
+
+        List<QuestionPoolKey> keys = new ArrayList<>();
+        List<Integer> bankSizes = new ArrayList<>();
+        byPoolKey.forEach((poolKey, ordinals) -> {
+            if (key.covers(poolKey)) {
+                keys.add(poolKey);
+                bankSizes.add(ordinals.length);
+            }
+        });
+        WildcardPoolView view = WildcardPoolView.of(keys, bankSizes.stream().mapToInt(Integer::intValue).toArray());
+        WildcardPoolView raced = wildcardViews.putIfAbsent(key, view);
+        return raced != null ? raced : view;
+    }
+
+    private boolean holdsValues(QuestionPoolKey key) {
+        return (key.topic() == null || byTopic.containsKey(key.topic()))
+                && (key.difficulty() == null || byDifficulty.containsKey(key.difficulty()))
+                && (key.language() == null || byLanguage.containsKey(key.language()));
+    }
+
+    /**
+     * Ordinals matching the given filters, where a null or blank filter matches any value.
+     */
+    int[] matching(String topic, String difficulty, String language) {
+        QuestionPoolKey filter = new QuestionPoolKey(key(topic), key(difficulty), key(language));
+        if (filter.topic() != null && filter.difficulty() != null && filter.language() != null) {
+            return byPoolKey(filter);
+        }
+
+        int[] cached = wildcardMatches.get(filter);
+        if (cached != null) {
+            return cached;
+        }
+
+        int[] matches = filterWildcard(filter);
+        if (matches.length > 0) {
+            wildcardMatches.putIfAbsent(filter, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Picks a random card among {@code ordinals} whose id is not in {@code excludedIds}, or null if none is left.
+     */
+    CardResponse randomCard(int[] ordinals, Set<String> excludedIds) {
+        if (ordinals.length == 0) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(ordinals.length);
+        for (int i = 0; i < ordinals.length; i++) {
+            CardResponse candidate = cards[ordinals[(start + i) % ordinals.length]];
+            if (!excludedIds.contains(candidate.id())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private DeckResolution computeResolution(DeckKey deckKey, String language) {
+        if (hasDeckCards(deckKey.language(), deckKey.topic())) {
+            return new DeckResolution(deckPools.get(deckKey), language, false);
+        }
+        if (!DECK_FALLBACK_LANGUAGE.equals(deckKey.language())
+                && hasDeckCards(DECK_FALLBACK_LANGUAGE, deckKey.topic())) {
+            return new DeckResolution(deckPool(DECK_FALLBACK_LANGUAGE, deckKey.topic()), DECK_FALLBACK_LANGUAGE, true);
+        }
+        return new DeckResolution(DeckPool.EMPTY, language, false);
+    }
+
+    /**
+     * Up to {@code count} distinct random ordinals among {@code ordinals} that are not {@code excluded}. Work is
+     * proportional to {@code count} rather than to the number of candidates, unless most candidates are excluded.
+     */
+    int[] sample(int[] ordinals, int count, IntPredicate excluded) {
+        int wanted = Math.min(count, ordinals.length);
+        if (wanted <= 0) {
+            return NO_CARDS;
+        }
+
+        int[] sampled = new int[wanted];
+        int size = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (ordinals.length <= wanted * 2) {
+            int[] shuffled = ordinals.clone();
+            for (int i = shuffled.length - 1; i > 0 && size < wanted; i--) {
+                int j = random.nextInt(i + 1);
+                int ordinal = shuffled[j];
+                shuffled[j] = shuffled[i];
+                if (!excluded.test(ordinal)) {
+                    sampled[size++] = ordinal;
+                }
+            }
+            if (size < wanted && !excluded.test(shuffled[0])) {
+                sampled[size++] = shuffled[0];
+            }
+            return size == wanted ? sampled : Arrays.copyOf(sampled, size);
+        }
+
+        BitSet tried = new BitSet(ordinals.length);
+        for (int attempt = 0; attempt < wanted * 4 && size < wanted; attempt++) {
+            int index = random.nextInt(ordinals.length);
+            if (!tried.get(index)) {
+                tried.set(index);
+                if (!excluded.test(ordinals[index])) {
+                    sampled[size++] = ordinals[index];
+                }
+            }
+        }
+        int start = random.nextInt(ordinals.length);
+        for (int i = 0; i < ordinals.length && size < wanted; i++) {
+            int index = (start + i) % ordinals.length;
+            if (!tried.get(index)) {
+                tried.set(index);
+                if (!excluded.test(ordinals[index])) {
+                    sampled[size++] = ordinals[index];
+                }
+            }
+        }
+        return size == wanted ? sampled : Arrays.copyOf(sampled, size);
+    }
+
+    private int[] filterWildcard(QuestionPoolKey filter) {
+        int[] base = null;
+        if (filter.language() != null) {
+            base = byLanguage(filter.language());
+        }
+        if (filter.topic() != null) {
+            base = narrowest(base, byTopic(filter.topic()));
+        }
+        if (filter.difficulty() != null) {
+            base = narrowest(base, byDifficulty(filter.difficulty()));
+        }
+        if (base == null) {
+            int[] all = new int[cards.length];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] matches = new int[base.length];
+        int count = 0;
+        for (int ordinal : base) {
+            CardResponse card = cards[ordinal];
+            if (matchesFilter(filter.topic(), card.topic())
+                    && matchesFilter(filter.difficulty(), card.difficulty())
+                    && matchesFilter(filter.language(), card.language())) {
+                matches[count++] = ordinal;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    private static int[] narrowest(int[] current, int[] candidate) {
+        return current == null || candidate.length < current.length ? candidate : current;
+    }
+
+    private static boolean matchesFilter(String filter, String value) {
+        return filter == null || filter.equals(key(value));
+    }
+
+    private static <K> int[] lookup(Map<K, int[]> index, K key) {
+        if (key == null) {
+            return NO_CARDS;
+        }
+        return index.getOrDefault(key, NO_CARDS);
+    }
+
+    private static <K> void addTo(Map<K, List<Integer>> index, K key, int ordinal) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfAbsent(key, ignored -> new ArrayList<>()).add(ordinal);
+    }
+
+    private static <K> Map<K, int[]> toArrays(Map<K, List<Integer>> index) {
+        Map<K, int[]> result = new HashMap<>(index.size() * 2);
+        index.forEach((key, ordinals) -> result.put(key, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+        return Map.copyOf(result);
+    }
+
+    static String key(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static CardResponse toImmutable(Card card) {
+        List<String> options = card.getOptions() == null ? null : List.copyOf(card.getOptions());
+        return new CardResponse(
+                card.getId(),
+                card.getId(),
+                card.getTopic(),
+                card.getSubtopic(),
+                card.getCategory(),
+                card.getLanguage(),
+                card.getQuestion(),
+                options,
+                card.getCorrectIndex(),
+                card.getDifficulty(),
+                card.getSource(),
+                card.getCreatedAt(),
+                card.getCorrectFlags(),
+                card.getCorrectMeta()
+        );
+    }
+
+    /**
+     * Content hash of the bank in id order, stable across JVMs so nodes loading the same data agree on the version.
+     */
+    private static long fingerprint(CardResponse[] cards) {
+        long hash = 0xcbf29ce484222325L;
+        for (CardResponse card : cards) {
+            for (Object field : fingerprintFields(card)) {
+                hash = (hash ^ Objects.hashCode(field)) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    private static Object[] fingerprintFields(CardResponse card) {
+        return new Object[]{
+                card.id(), card.topic(), card.subtopic(), card.category(), card.language(), card.question(),
+                card.options(), card.correctIndex(), card.difficulty(), card.source(), card.correctFlags(),
+                card.correctMeta()
+        };
+    }
+
+    /**
+     * Deck chosen for a request, with the language actually served and whether it differs from the one asked for.
+     */
+    record DeckResolution(DeckPool pool, String language, boolean languageRelaxed) {
+    }
+
+    private record DeckKey(String language, String topic) {
+    }
+}
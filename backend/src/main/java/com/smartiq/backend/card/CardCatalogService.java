@@ -0,0 +1,53 @@
+package com.smartiq.backend.card;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CardCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardCatalogService.class);
+
+    private final CardRepository cardRepository;
+    private volatile LoadedCatalog loaded;
+
+    public CardCatalogService(CardRepository cardRepository) {
+        this.cardRepository = cardRepository;
+    }
+
+    CardCatalog current() {
+        LoadedCatalog snapshot = loaded;
+        if (snapshot != null && snapshot.changeCount() == CardChangeListener.changeCount()) {
+            return snapshot.catalog();
+        }
+        return reload();
+    }
+
+    /**
+     * Drops the current snapshot so the next read reloads it; needed after bulk writes that bypass the entity lifecycle.
+     */
+    public void invalidate() {
+        loaded = null;
+    }
+
+    private synchronized CardCatalog reload() {
+        long changeCount = CardChangeListener.changeCount();
+        LoadedCatalog snapshot = loaded;
+        if (snapshot != null && snapshot.changeCount() == changeCount) {
+            return snapshot.catalog();
+        }
+
+        long startedAt = System.nanoTime();
+        CardCatalog catalog = CardCatalog.of(cardRepository.findAll());
+        loaded = new LoadedCatalog(catalog, changeCount);
+        log.info("Card catalog loaded version={} cards={} tookMs={}",
+                Long.toHexString(catalog.version()),
+                catalog.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return catalog;
+    }
+
+    private record LoadedCatalog(CardCatalog catalog, long changeCount) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.smartiq.backend.card;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts committed card writes so {@link CardCatalogService} can tell when its snapshot is stale.
+ * The counter only moves after the surrounding transaction completes, so a reload never races
+ * ahead of uncommitted rows.
+ */
+public class CardChangeListener {
+
+    private static final AtomicLong CHANGES = new AtomicLong();
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onCardChanged(Card card) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            CHANGES.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                CHANGES.incrementAndGet();
+            }
+        });
+    }
+
+    static long changeCount() {
+        return CHANGES.get();
+    }
+}
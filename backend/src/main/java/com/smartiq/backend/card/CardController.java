@@ -1,12 +1,14 @@
 package com.smartiq.backend.card;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -15,6 +17,9 @@ import java.util.NoSuchElementException;
 @RequestMapping("/api")
 public class CardController {
 
+    static final String DECK_SEED_HEADER = "X-Deck-Seed";
+    static final String DECK_CURSOR_HEADER = "X-Deck-Cursor";
+
     private final CardService cardService;
 
     public CardController(CardService cardService) {
@@ -64,18 +69,73 @@ public class CardController {
     @GetMapping("/cards/nextRandom")
     public ResponseEntity<?> getNextRandomCard(@RequestParam(name = "language") String language,
                                                @RequestParam(name = "gameId") String gameId,
-                                               @RequestParam(name = "topic", required = false) String topic) {
+                                               @RequestParam(name = "topic", required = false) String topic,
+                                               @RequestParam(name = "mode", defaultValue = "random") String mode,
+                                               @RequestParam(name = "seed", required = false) Long seed,
+                                               @RequestParam(name = "cursor", required = false) Long cursor) {
         try {
-            return ResponseEntity.ok(cardService.getNextRandomCard(language, gameId, topic));
+            if (isSeededMode(mode)) {
+                SeededDeckPage page = cardService.getNextSeededCards(language, gameId, topic, 1, seed, cursor);
+                return seededResponse(page).body(page.cards().get(0));
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cardService.getNextRandomCard(language, gameId, topic));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
         } catch (InvalidCardContractException ex) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", ex.getMessage()));
+        } catch (ConcurrentModificationException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
         } catch (NoSuchElementException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
         }
     }
 
+    @GetMapping("/cards/nextRandom/batch")
+    public ResponseEntity<?> getNextRandomCards(@RequestParam(name = "language") String language,
+                                                @RequestParam(name = "gameId") String gameId,
+                                                @RequestParam(name = "topic", required = false) String topic,
+                                                @RequestParam(name = "count", defaultValue = "10") int count,
+                                                @RequestParam(name = "mode", defaultValue = "random") String mode,
+                                                @RequestParam(name = "seed", required = false) Long seed,
+                                                @RequestParam(name = "cursor", required = false) Long cursor) {
+        try {
+            if (isSeededMode(mode)) {
+                SeededDeckPage page = cardService.getNextSeededCards(language, gameId, topic, count, seed, cursor);
+                return seededResponse(page).body(DeckResponseCache.jsonArray(page.cards()));
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cardService.getNextRandomCards(language, gameId, topic, count));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (InvalidCardContractException ex) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", ex.getMessage()));
+        } catch (ConcurrentModificationException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+        } catch (NoSuchElementException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    private static boolean isSeededMode(String mode) {
+        if ("seeded".equalsIgnoreCase(mode)) {
+            return true;
+        }
+        if ("random".equalsIgnoreCase(mode)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unsupported deck mode: " + mode);
+    }
+
+    private static ResponseEntity.BodyBuilder seededResponse(SeededDeckPage page) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(DECK_SEED_HEADER, Long.toString(page.seed()))
+                .header(DECK_CURSOR_HEADER, Long.toString(page.nextPosition()));
+    }
+
     private static String resolveTopic(String topicId, String legacyTopic) {
         if (topicId != null && !topicId.isBlank()) {
             return topicId.trim();
@@ -11,6 +11,8 @@ import java.util.Map;
 final class CardDeckResponseMapper {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> CORRECT_META_TYPE = new TypeReference<>() {
+    };
 
     private CardDeckResponseMapper() {
     }
@@ -46,8 +48,7 @@ final class CardDeckResponseMapper {
     private static Map<String, Object> resolveCorrect(String category, CardResponse card) {
         if (card.correctMeta() != null && !card.correctMeta().isBlank()) {
             try {
-                return OBJECT_MAPPER.readValue(card.correctMeta(), new TypeReference<>() {
-                });
+                return OBJECT_MAPPER.readValue(card.correctMeta(), CORRECT_META_TYPE);
             } catch (Exception ex) {
                 throw new InvalidCardContractException("Invalid correct metadata JSON for " + card.cardId());
             }
@@ -0,0 +1,47 @@
+package com.smartiq.backend.card;
+
+/**
+ * Ready-to-serve cards for one {@link QuestionPoolKey}, published as an immutable {@link PoolEpoch}. Readers never
+ * remove cards: sessions walk the epoch with their own {@link PoolCursor}, so one card can serve many sessions and
+ * reads never contend with each other. {@link #size()} is O(1).
+ */
+public interface CardPool {
+
+    PoolEpoch epoch();
+
+    int size();
+
+    int capacity();
+
+    /**
+     * Appends the catalog cards at {@code ordinals} not already in the current epoch, up to capacity, and returns
+     * how many were added.
+     */
+    int fill(CardCatalog catalog, int[] ordinals);
+
+    /**
+     * Replaces the current epoch with a new one holding the catalog cards at {@code ordinals}, and clears any
+     * pending rotation request.
+     */
+    int rotate(CardCatalog catalog, int[] ordinals);
+
+    /**
+     * Next card for callers without a session, cycling through the epoch and resolved against the current
+     * {@code catalog}. Completing a pass requests a rotation as {@link #requestRotation(int)} would with
+     * {@code target}.
+     */
+    CardResponse nextShared(CardCatalog catalog, int target);
+
+    /**
+     * Marks that a reader ran off the end of the current epoch. Only takes effect when the epoch holds at least
+     * {@code target} cards, the key's current fill target (capped at capacity); a smaller epoch already holds the
+     * whole bank for its key, or is still being filled.
+     */
+    void requestRotation(int target);
+
+    boolean rotationRequested();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
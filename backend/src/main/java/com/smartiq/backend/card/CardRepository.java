@@ -7,62 +7,25 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
 
 public interface CardRepository extends JpaRepository<Card, String> {
 
-    @Query(value = "select * from cards where lower(topic) = lower(:topic) order by random() limit 1", nativeQuery = true)
-    Optional<Card> findRandomByTopic(@Param("topic") String topic);
-
+    /**
+     * Last-resort fallback when the in-memory catalog has nothing left for the filters. The batch is bounded and the
+     * statement text is fixed; callers drop cards the session has already seen.
+     */
     @Query(value = """
             select * from cards
             where (:topic is null or lower(topic) = lower(:topic))
               and (:difficulty is null or lower(difficulty) = lower(:difficulty))
               and (:language is null or lower(language) = lower(:language))
             order by random()
-            limit 1
-            """, nativeQuery = true)
-    Optional<Card> findRandomByFilters(@Param("topic") String topic,
-                                       @Param("difficulty") String difficulty,
-                                       @Param("language") String language);
-
-    @Query(value = """
-            select * from cards
-            where (:topic is null or lower(topic) = lower(:topic))
-              and (:difficulty is null or lower(difficulty) = lower(:difficulty))
-              and (:language is null or lower(language) = lower(:language))
-              and id not in (:excludedIds)
-            order by random()
-            limit 1
-            """, nativeQuery = true)
-    Optional<Card> findRandomByFiltersExcludingIds(@Param("topic") String topic,
-                                                   @Param("difficulty") String difficulty,
-                                                   @Param("language") String language,
-                                                   @Param("excludedIds") Set<String> excludedIds);
-
-    @Query(value = "select * from cards order by random() limit 1", nativeQuery = true)
-    Optional<Card> findRandomOverall();
-
-    @Query(value = """
-            select * from cards
-            where lower(language) = lower(:language)
-              and (:topic is null or lower(topic) = lower(:topic))
-              and lower(source) in (:allowedSources)
-            """, nativeQuery = true)
-    List<Card> findDeckPool(@Param("language") String language,
-                            @Param("topic") String topic,
-                            @Param("allowedSources") List<String> allowedSources);
-
-    @Query(value = """
-            select * from cards
-            where lower(topic) = lower(:topic)
-              and lower(difficulty) = lower(:difficulty)
-              and lower(language) = lower(:language)
+            limit :limit
             """, nativeQuery = true)
-    List<Card> findAllByPoolKey(@Param("topic") String topic,
-                                @Param("difficulty") String difficulty,
-                                @Param("language") String language);
+    List<Card> findRandomBatchByFilters(@Param("topic") String topic,
+                                        @Param("difficulty") String difficulty,
+                                        @Param("language") String language,
+                                        @Param("limit") int limit);
 
     @Query(value = """
             select topic as topic, difficulty as difficulty, language as language
@@ -4,20 +4,28 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class CardService {
 
     private final CardRepository cardRepository;
+    private final CardCatalogService cardCatalogService;
     private final QuestionPoolService questionPoolService;
     private final NextRandomCardService nextRandomCardService;
+    private final DeckResponseCache deckResponseCache;
 
     public CardService(CardRepository cardRepository,
+                       CardCatalogService cardCatalogService,
                        QuestionPoolService questionPoolService,
-                       NextRandomCardService nextRandomCardService) {
+                       NextRandomCardService nextRandomCardService,
+                       DeckResponseCache deckResponseCache) {
         this.cardRepository = cardRepository;
+        this.cardCatalogService = cardCatalogService;
         this.questionPoolService = questionPoolService;
         this.nextRandomCardService = nextRandomCardService;
+        this.deckResponseCache = deckResponseCache;
     }
 
     public List<TopicCountResponse> getTopicCounts() {
@@ -28,21 +36,35 @@ public class CardService {
     }
 
     public CardResponse getRandomCard(String topic) {
-        Card card;
+        CardCatalog catalog = cardCatalogService.current();
         if (topic == null || topic.isBlank()) {
-            card = cardRepository.findRandomOverall().orElseThrow(() -> new NoSuchElementException("No cards available"));
-        } else {
-            card = cardRepository.findRandomByTopic(topic).orElseThrow(() -> new NoSuchElementException("No cards available for topic: " + topic));
+            return Optional.ofNullable(catalog.randomCard(catalog.matching(null, null, null), Set.of()))
+                    .orElseThrow(() -> new NoSuchElementException("No cards available"));
         }
-        return CardResponse.fromEntity(card);
+        return Optional.ofNullable(catalog.randomCard(catalog.byTopic(topic), Set.of()))
+                .orElseThrow(() -> new NoSuchElementException("No cards available for topic: " + topic));
     }
 
     public CardResponse getNextCard(String topic, String difficulty, String sessionId, String language) {
         return questionPoolService.nextCard(topic, difficulty, language, sessionId);
     }
 
-    public CardDeckResponse getNextRandomCard(String language, String gameId, String topic) {
-        Card card = nextRandomCardService.nextRandom(language, gameId, topic);
-        return CardDeckResponseMapper.toDeckResponse(CardResponse.fromEntity(card));
+    public byte[] getNextRandomCard(String language, String gameId, String topic) {
+        return deckResponseCache.json(nextRandomCardService.nextRandom(language, gameId, topic));
+    }
+
+    public byte[] getNextRandomCards(String language, String gameId, String topic, int count) {
+        return DeckResponseCache.jsonArray(
+                deckResponseCache.json(nextRandomCardService.nextRandomBatch(language, gameId, topic, count)));
+    }
+
+    public SeededDeckPage getNextSeededCards(String language,
+                                             String gameId,
+                                             String topic,
+                                             int count,
+                                             Long seed,
+                                             Long cursor) {
+        NextRandomCardService.SeededBatch batch = nextRandomCardService.nextSeededBatch(language, gameId, topic, count, seed, cursor);
+        return new SeededDeckPage(deckResponseCache.json(batch.cards()), batch.cursor().seed(), batch.cursor().position());
     }
 }
@@ -0,0 +1,194 @@
+package com.smartiq.backend.card;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deck candidates for one language/topic combination, with each card's category and topic resolved to small int
+ * codes up front and one bitset per category and topic. The "not last category, not last topic, not recent"
+ * filter is then a handful of word-wise AND-NOT operations over {@link #words} longs.
+ */
+final class DeckPool {
+
+    static final int STRICT = 0;
+    static final int RELAX_CARD_ID = 1;
+    static final int RELAX_TOPIC = 2;
+    static final int LEVELS = 3;
+
+    static final DeckPool EMPTY = of(List.of());
+
+    private final List<CardResponse> cards;
+    private final int[] categoryCodes;
+    private final int[] topicCodes;
+    private final Map<String, Integer> categoryCodeByName;
+    private final Map<String, Integer> topicCodeByKey;
+    private final Map<String, Integer> indexById;
+    private final long[][] categoryMasks;
+    private final long[][] topicMasks;
+    private final int words;
+    private final long lastWordMask;
+
+    private DeckPool(List<CardResponse> cards) {
+        this.cards = cards;
+        int size = cards.size();
+        this.words = (size + 63) >>> 6;
+        this.lastWordMask = (size & 63) == 0 ? -1L : (1L << size) - 1;
+        this.categoryCodes = new int[size];
+        this.topicCodes = new int[size];
+
+        Map<String, Integer> categories = new HashMap<>();
+        Map<String, Integer> topics = new HashMap<>();
+        Map<String, Integer> ids = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            CardResponse card = cards.get(i);
+            ids.putIfAbsent(card.id(), i);
+            categoryCodes[i] = categories.computeIfAbsent(NextRandomCardService.resolveCategory(card), ignored -> categories.size());
+            String topicKey = topicKey(card.topic());
+            topicCodes[i] = topicKey == null ? -1 : topics.computeIfAbsent(topicKey, ignored -> topics.size());
+        }
+
+        this.categoryCodeByName = Map.copyOf(categories);
+        this.topicCodeByKey = Map.copyOf(topics);
+        this.indexById = Map.copyOf(ids);
+        this.categoryMasks = new long[categories.size()][words];
+        this.topicMasks = new long[topics.size()][words];
+        for (int i = 0; i < size; i++) {
+            categoryMasks[categoryCodes[i]][i >>> 6] |= 1L << i;
+            if (topicCodes[i] >= 0) {
+                topicMasks[topicCodes[i]][i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    static DeckPool of(List<CardResponse> cards) {
+        return new DeckPool(List.copyOf(cards));
+    }
+
+    int size() {
+        return cards.size();
+    }
+
+    boolean isEmpty() {
+        return cards.isEmpty();
+    }
+
+    CardResponse card(int index) {
+        return cards.get(index);
+    }
+
+    List<CardResponse> cards() {
+        return cards;
+    }
+
+    int indexOf(String cardId) {
+        Integer index = cardId == null ? null : indexById.get(cardId);
+        return index == null ? -1 : index;
+    }
+
+    int categoryCode(String category) {
+        if (category == null) {
+            return -1;
+        }
+        return categoryCodeByName.getOrDefault(category.toUpperCase(Locale.ROOT), -1);
+    }
+
+    int topicCode(String topic) {
+        String key = topicKey(topic);
+        return key == null ? -1 : topicCodeByKey.getOrDefault(key, -1);
+    }
+
+    int categoryCodeAt(int index) {
+        return categoryCodes[index];
+    }
+
+    int topicCodeAt(int index) {
+        return topicCodes[index];
+    }
+
+    /**
+     * Whether the card at {@code index} is eligible at the given relaxation level. Category alternation is enforced
+     * at every level here; relaxing it means picking from the whole pool.
+     */
+    boolean accepts(int index, int level, int lastCategory, int lastTopic, Set<String> recentIds) {
+        if (lastCategory >= 0 && categoryCodes[index] == lastCategory) {
+            return false;
+        }
+        if (level < RELAX_TOPIC && lastTopic >= 0 && topicCodes[index] == lastTopic) {
+            return false;
+        }
+        return level != STRICT || !recentIds.contains(cards.get(index).id());
+    }
+
+    /**
+     * Bitset of pool indexes whose card id is in {@code recentIds}.
+     */
+    long[] recentMask(Set<String> recentIds) {
+        long[] mask = new long[words];
+        for (String cardId : recentIds) {
+            int index = indexOf(cardId);
+            if (index >= 0) {
+                mask[index >>> 6] |= 1L << index;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Exact number of eligible cards at each relaxation level ({@link #STRICT}, {@link #RELAX_CARD_ID},
+     * {@link #RELAX_TOPIC}), computed in a single pass over the masks.
+     */
+    int[] eligibleCounts(int lastCategory, int lastTopic, long[] recentMask) {
+        int[] counts = new int[LEVELS];
+        for (int w = 0; w < words; w++) {
+            long relaxTopic = validWord(w) & ~wordOf(categoryMasks, lastCategory, w);
+            long relaxCardId = relaxTopic & ~wordOf(topicMasks, lastTopic, w);
+            long strict = relaxCardId & ~recentMask[w];
+            counts[STRICT] += Long.bitCount(strict);
+            counts[RELAX_CARD_ID] += Long.bitCount(relaxCardId);
+            counts[RELAX_TOPIC] += Long.bitCount(relaxTopic);
+        }
+        return counts;
+    }
+
+    /**
+     * Index of the {@code rank}-th (zero-based) eligible card at {@code level}, or -1 if there are not that many.
+     */
+    int selectEligible(int level, int rank, int lastCategory, int lastTopic, long[] recentMask) {
+        int remaining = rank;
+        for (int w = 0; w < words; w++) {
+            long eligible = validWord(w) & ~wordOf(categoryMasks, lastCategory, w);
+            if (level < RELAX_TOPIC) {
+                eligible &= ~wordOf(topicMasks, lastTopic, w);
+            }
+            if (level == STRICT) {
+                eligible &= ~recentMask[w];
+            }
+
+            int bits = Long.bitCount(eligible);
+            if (remaining >= bits) {
+                remaining -= bits;
+                continue;
+            }
+            for (int i = 0; i < remaining; i++) {
+                eligible &= eligible - 1;
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(eligible);
+        }
+        return -1;
+    }
+
+    private long validWord(int w) {
+        return w == words - 1 ? lastWordMask : -1L;
+    }
+
+    private static long wordOf(long[][] masks, int code, int w) {
+        return code < 0 ? 0L : masks[code][w];
+    }
+
+    private static String topicKey(String topic) {
+        return topic == null ? null : topic.toLowerCase(Locale.ROOT);
+    }
+}
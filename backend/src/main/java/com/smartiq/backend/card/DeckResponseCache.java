@@ -0,0 +1,79 @@
+package com.smartiq.backend.card;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Final UTF-8 JSON of each card's {@link CardDeckResponse}. Catalog cards are immutable, so the mapping and
+ * serialization run once per card per catalog snapshot; an entry is only reused for the exact {@link CardResponse}
+ * it was built from, so a catalog reload never serves stale bytes.
+ */
+@Component
+public class DeckResponseCache {
+
+    private static final int MAX_CARDS = 20_000;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> entries = Caffeine.newBuilder()
+            .maximumSize(MAX_CARDS)
+            .build();
+
+    public DeckResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    byte[] json(CardResponse card) {
+        Entry cached = entries.getIfPresent(card.id());
+        if (cached != null && cached.card() == card) {
+            return cached.json();
+        }
+        byte[] json = serialize(CardDeckResponseMapper.toDeckResponse(card));
+        entries.put(card.id(), new Entry(card, json));
+        return json;
+    }
+
+    List<byte[]> json(List<CardResponse> cards) {
+        return cards.stream().map(this::json).toList();
+    }
+
+    /**
+     * Joins already serialized objects into a JSON array without re-parsing them.
+     */
+    static byte[] jsonArray(List<byte[]> elements) {
+        int length = 2 + Math.max(0, elements.size() - 1);
+        for (byte[] element : elements) {
+            length += element.length;
+        }
+
+        byte[] array = new byte[length];
+        int offset = 0;
+        array[offset++] = '[';
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                array[offset++] = ',';
+            }
+            byte[] element = elements.get(i);
+            System.arraycopy(element, 0, array, offset, element.length);
+            offset += element.length;
+        }
+        array[offset] = ']';
+        return array;
+    }
+
+    private byte[] serialize(CardDeckResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record Entry(CardResponse card, byte[] json) {
+    }
+}
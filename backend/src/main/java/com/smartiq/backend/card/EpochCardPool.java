@@ -0,0 +1,83 @@
+package com.smartiq.backend.card;
+
+/**
+ * {@link CardPool} holding its epoch in a volatile field. Reads are a plain field load; the rare writers (refills)
+ * serialize on the pool and publish a new epoch object. Session-less reads share a {@link SharedReadCursor}, which
+ * stripes itself across cores when the key turns hot.
+ */
+final class EpochCardPool implements CardPool {
+
+    private final int capacity;
+    private final SharedReadCursor sharedReads = new SharedReadCursor(() -> requestRotation(this.sharedTarget));
+    private volatile PoolEpoch epoch;
+    private volatile boolean rotationRequested;
+    private volatile int sharedTarget;
+
+    EpochCardPool(int capacity) {
+        this(capacity, PoolEpoch.EMPTY);
+    }
+
+    /**
+     * Pool starting from {@code empty}, whose representation every later epoch keeps.
+     */
+    EpochCardPool(int capacity, PoolEpoch empty) {
+        this.capacity = Math.max(1, capacity);
+        this.epoch = empty;
+    }
+
+    @Override
+    public PoolEpoch epoch() {
+        return epoch;
+    }
+
+    @Override
+    public int size() {
+        return epoch.size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized int fill(CardCatalog catalog, int[] ordinals) {
+        PoolEpoch current = epoch;
+        PoolEpoch updated = current.append(catalog, ordinals, capacity);
+        epoch = updated;
+        return Math.max(0, updated.size() - current.size());
+    }
+
+    @Override
+    public synchronized int rotate(CardCatalog catalog, int[] ordinals) {
+        PoolEpoch updated = epoch.next(catalog, ordinals, capacity);
+        epoch = updated;
+        rotationRequested = false;
+        return updated.size();
+    }
+
+    @Override
+    public CardResponse nextShared(CardCatalog catalog, int target) {
+        PoolEpoch current = epoch;
+        if (current.isEmpty() || !current.readableWith(catalog)) {
+            return null;
+        }
+        if (sharedTarget != target) {
+            // Only written when the target moves, so shared reads of a hot key do not all store to one line.
+            sharedTarget = target;
+        }
+        return current.card(catalog, sharedReads.next(current));
+    }
+
+    @Override
+    public void requestRotation(int target) {
+        if (epoch.size() >= Math.min(capacity, target)) {
+            rotationRequested = true;
+        }
+    }
+
+    @Override
+    public boolean rotationRequested() {
+        return rotationRequested;
+    }
+}
@@ -0,0 +1,38 @@
+package com.smartiq.backend.card;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a game's recent deck cards, oldest first. Snapshots are compared by identity, which is what
+ * {@link GameHistoryStore#compareAndAppend} relies on.
+ */
+final class GameHistory {
+
+    static final GameHistory EMPTY = new GameHistory(List.of());
+
+    private final List<DeckCardMeta> entries;
+
+    private GameHistory(List<DeckCardMeta> entries) {
+        this.entries = entries;
+    }
+
+    List<DeckCardMeta> recent(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return entries.subList(Math.max(0, entries.size() - limit), entries.size());
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    GameHistory append(List<DeckCardMeta> cardMetas, int maxSize) {
+        List<DeckCardMeta> combined = new ArrayList<>(entries.size() + cardMetas.size());
+        combined.addAll(entries);
+        combined.addAll(cardMetas);
+        int from = Math.max(0, combined.size() - maxSize);
+        return new GameHistory(List.copyOf(combined.subList(from, combined.size())));
+    }
+}
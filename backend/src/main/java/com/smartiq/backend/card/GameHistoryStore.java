@@ -4,9 +4,13 @@ import java.util.List;
 
 public interface GameHistoryStore {
 
-    List<DeckCardMeta> readRecent(String gameId, int limit);
+    GameHistory snapshot(String gameId);
 
-    void append(String gameId, DeckCardMeta cardMeta, int maxSize);
+    /**
+     * Appends {@code cardMetas} only if the game's history is still {@code expected}; returns false on a concurrent
+     * update so the caller can re-plan against the newer snapshot.
+     */
+    boolean compareAndAppend(String gameId, GameHistory expected, List<DeckCardMeta> cardMetas, int maxSize);
 
     void evict(String gameId);
 }
@@ -0,0 +1,96 @@
+package com.smartiq.backend.card;
+
+import java.util.Arrays;
+
+/**
+ * {@link PoolEpoch} holding catalog ordinals, so a pool is an {@code int[]} into the shared, immutable card table
+ * and refills allocate no card objects. A sorted copy of the ordinals answers membership. Only the version of the
+ * catalog the ordinals belong to is kept, so an epoch never pins a replaced catalog; once the catalog is reloaded
+ * the epoch stops resolving, and the next append starts a new epoch over the new catalog.
+ */
+final class HeapPoolEpoch extends PoolEpoch {
+
+    private static final int[] NO_ORDINALS = new int[0];
+
+    static final HeapPoolEpoch EMPTY = new HeapPoolEpoch(0, 0, NO_ORDINALS, NO_ORDINALS);
+
+    private final long catalogVersion;
+    private final int[] ordinals;
+    private final int[] sorted;
+
+    private HeapPoolEpoch(long number, long catalogVersion, int[] ordinals, int[] sorted) {
+        super(number);
+        this.catalogVersion = catalogVersion;
+        this.ordinals = ordinals;
+        this.sorted = sorted;
+    }
+
+    static HeapPoolEpoch of(long number, CardCatalog catalog, int[] ordinals) {
+        return withCards(number, catalog.version(), NO_ORDINALS, NO_ORDINALS, ordinals, ordinals.length);
+    }
+
+    @Override
+    int size() {
+        return ordinals.length;
+    }
+
+    @Override
+    CardResponse card(CardCatalog catalog, int position) {
+        return readableWith(catalog) ? catalog.card(ordinals[position]) : null;
+    }
+
+    @Override
+    boolean contains(CardCatalog catalog, int ordinal) {
+        return readableWith(catalog) && containsOrdinal(ordinal);
+    }
+
+    @Override
+    boolean readableWith(CardCatalog catalog) {
+        return ordinals.length == 0 || catalog.version() == catalogVersion;
+    }
+
+    @Override
+    HeapPoolEpoch append(CardCatalog catalog, int[] additions, int capacity) {
+        if (!readableWith(catalog)) {
+            return next(catalog, additions, capacity);
+        }
+        return withCards(number(), catalog.version(), ordinals, sorted, additions, capacity);
+    }
+
+    @Override
+    HeapPoolEpoch next(CardCatalog catalog, int[] replacement, int capacity) {
+        return withCards(number() + 1, catalog.version(), NO_ORDINALS, NO_ORDINALS, replacement, capacity);
+    }
+
+    private boolean containsOrdinal(int ordinal) {
+        return ordinal >= 0 && Arrays.binarySearch(sorted, ordinal) >= 0;
+    }
+
+    private static HeapPoolEpoch withCards(long number,
+                                           long catalogVersion,
+                                           int[] base,
+                                           int[] baseSorted,
+                                           int[] additions,
+                                           int capacity) {
+        int limit = Math.max(base.length, Math.min(capacity, base.length + additions.length));
+        int[] ordinals = Arrays.copyOf(base, limit);
+        int[] sorted = Arrays.copyOf(baseSorted, limit);
+        int size = base.length;
+        for (int ordinal : additions) {
+            if (size >= limit) {
+                break;
+            }
+            int index = Arrays.binarySearch(sorted, 0, size, ordinal);
+            if (index >= 0) {
+                continue;
+            }
+            int insertAt = -index - 1;
+            System.arraycopy(sorted, insertAt, sorted, insertAt + 1, size - insertAt);
+            sorted[insertAt] = ordinal;
+            ordinals[size++] = ordinal;
+        }
+        return size == limit
+                ? new HeapPoolEpoch(number, catalogVersion, ordinals, sorted)
+                : new HeapPoolEpoch(number, catalogVersion, Arrays.copyOf(ordinals, size), Arrays.copyOf(sorted, size));
+    }
+}
@@ -2,91 +2,212 @@ package com.smartiq.backend.card;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import org.springframework.context.annotation.Primary;
+import com.smartiq.backend.config.QuestionPoolProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
 
+/**
+ * Keeps each key's pool and counters in one cache entry, so they are bounded and dropped together. A pool left
+ * unread for two hours shrinks to a seed of {@link #SEED_SIZE} cards instead of being dropped, checked once a minute
+ * on a background thread; the next read promotes it back to a full pool that starts from the seed, so the returning
+ * request is served from memory while the usual below-watermark refill re-warms the key in the background. Entries
+ * are weighed by pool capacity, so seeded keys take little of the bound and only a flood of distinct keys drops a
+ * key outright.
+ */
 @Component
-@Primary
+@Profile("!redis-store & !offheap-store")
 public class InMemoryQuestionPoolStore implements QuestionPoolStore {
 
-    private final Cache<QuestionPoolKey, ConcurrentLinkedQueue<CardResponse>> queueCache =
-            Caffeine.newBuilder().expireAfterAccess(2, TimeUnit.HOURS).maximumSize(5000).build();
+    static final int SEED_SIZE = 8;
+    static final long IDLE_BEFORE_SEEDING_NANOS = TimeUnit.HOURS.toNanos(2);
 
-    private final Map<QuestionPoolKey, KeyCounters> counters = new ConcurrentHashMap<>();
+    private static final long MAX_FULL_POOLS = 5000;
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
 
-    @Override
-    public ConcurrentLinkedQueue<CardResponse> queueForKey(QuestionPoolKey key) {
-        counters.computeIfAbsent(key, ignored -> new KeyCounters());
-        return queueCache.get(key, ignored -> new ConcurrentLinkedQueue<>());
+    private final Cache<QuestionPoolKey, PoolEntry> entries;
+    private final int poolCapacity;
+    private final PoolEpoch emptyEpoch;
+    private final CardCatalogService cardCatalogService;
+    private final LongSupplier clock;
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public InMemoryQuestionPoolStore(QuestionPoolProperties properties, CardCatalogService cardCatalogService) {
+        this(properties, cardCatalogService, PoolEpoch.EMPTY, System::nanoTime);
     }
 
-    @Override
-    public void recordCacheHit(QuestionPoolKey key) {
-        counters.computeIfAbsent(key, ignored -> new KeyCounters()).cacheHits.incrementAndGet();
+    InMemoryQuestionPoolStore(QuestionPoolProperties properties,
+                              CardCatalogService cardCatalogService,
+                              PoolEpoch emptyEpoch,
+                              LongSupplier clock) {
+        this.poolCapacity = Math.max(1, properties.refillTargetPerKey());
+        this.emptyEpoch = emptyEpoch;
+        this.cardCatalogService = cardCatalogService;
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(MAX_FULL_POOLS * poolCapacity)
+                .weigher((QuestionPoolKey key, PoolEntry entry) -> entry.weight())
+                .build();
+    }
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pool-seeding");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::seedIdlePools, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
     }
 
     @Override
-    public void recordCacheMiss(QuestionPoolKey key) {
-        counters.computeIfAbsent(key, ignored -> new KeyCounters()).cacheMisses.incrementAndGet();
+    public CardPool poolForKey(QuestionPoolKey key) {
+        long now = clock.getAsLong();
+        PoolEntry entry = entry(key, now);
+        if (entry.pool == null || entry.seeded) {
+            entry = entries.asMap().compute(key, (ignored, current) -> warm(current, now));
+        }
+        entry.touch(now);
+        return entry.pool;
     }
 
     @Override
-    public void recordRefill(QuestionPoolKey key, int added) {
-        KeyCounters keyCounters = counters.computeIfAbsent(key, ignored -> new KeyCounters());
-        keyCounters.refillCount.incrementAndGet();
-        keyCounters.lastRefillAt = Instant.now();
+    public PoolKeyCounters countersForKey(QuestionPoolKey key) {
+        return entry(key, clock.getAsLong()).counters;
     }
 
     @Override
-    public void recordFallbackDbHit(QuestionPoolKey key) {
-        counters.computeIfAbsent(key, ignored -> new KeyCounters()).fallbackDbHits.incrementAndGet();
+    public int poolSize(QuestionPoolKey key) {
+        PoolEntry entry = entries.getIfPresent(key);
+        return entry == null || entry.pool == null ? 0 : entry.pool.size();
     }
 
     @Override
     public List<PoolKeyStats> snapshot() {
         List<PoolKeyStats> stats = new ArrayList<>();
-        for (Map.Entry<QuestionPoolKey, KeyCounters> entry : counters.entrySet()) {
-            QuestionPoolKey key = entry.getKey();
-            KeyCounters value = entry.getValue();
-            long hits = value.cacheHits.get();
-            long misses = value.cacheMisses.get();
-            double hitRate = (hits + misses) == 0 ? 0.0 : (double) hits / (hits + misses);
-
-            stats.add(new PoolKeyStats(
-                    key.topic(),
-                    key.difficulty(),
-                    key.language(),
-                    queueForKey(key).size(),
-                    value.refillCount.get(),
-                    value.lastRefillAt,
-                    value.fallbackDbHits.get(),
-                    hits,
-                    misses,
-                    hitRate
-            ));
+        entries.asMap().forEach((key, entry) ->
+                stats.add(PoolKeyStats.of(key, entry.pool == null ? 0 : entry.pool.size(), entry.counters)));
+        stats.sort(PoolKeyStats.BY_KEY);
+        return stats;
+    }
+
+    @Override
+    public void forEachPool(BiConsumer<QuestionPoolKey, CardPool> visitor) {
+        entries.asMap().forEach((key, entry) -> {
+            if (entry.pool != null) {
+                visitor.accept(key, entry.pool);
+            }
+        });
+    }
+
+    private PoolEntry entry(QuestionPoolKey key, long now) {
+        return entries.get(key, ignored -> new PoolEntry(null, new PoolKeyCounters(), false, now));
+    }
+
+    /**
+     * Full-capacity pool for the key: a new one, or one that starts from the seed in the same epoch so session
+     * cursors into the seed stay valid.
+     */
+    private PoolEntry warm(PoolEntry current, long now) {
+        if (current == null) {
+            return new PoolEntry(new EpochCardPool(poolCapacity, emptyEpoch), new PoolKeyCounters(), false, now);
+        }
+        if (current.pool == null) {
+            return current.withPool(new EpochCardPool(poolCapacity, emptyEpoch), false);
         }
+        if (current.seeded) {
+            return current.withPool(new EpochCardPool(poolCapacity, current.pool.epoch()), false);
+        }
+        return current;
+    }
 
-        stats.sort(Comparator.comparing(PoolKeyStats::topic)
-                .thenComparing(PoolKeyStats::difficulty)
-                .thenComparing(PoolKeyStats::language));
-        return stats;
+    /**
+     * Shrinks every pool left unread for {@link #IDLE_BEFORE_SEEDING_NANOS} to a seed. Seeds are built outside the
+     * map, against one catalog for the whole pass, and swapped in only if the entry has not changed meanwhile and is
+     * still idle when the swap runs; reads touch the entry in place, so a read since the first check keeps the pool.
+     */
+    void seedIdlePools() {
+        CardCatalog catalog = null;
+        for (var mapping : entries.asMap().entrySet()) {
+            PoolEntry entry = mapping.getValue();
+            if (entry.pool == null || entry.seeded || !entry.idleAt(clock.getAsLong())) {
+                continue;
+            }
+            if (catalog == null) {
+                catalog = cardCatalogService.current();
+            }
+            PoolEntry seed = seed(entry, catalog);
+            entries.asMap().computeIfPresent(mapping.getKey(), (key, current) ->
+                    current == entry && current.idleAt(clock.getAsLong()) ? seed : current);
+        }
     }
 
-    private static class KeyCounters {
-        private final AtomicLong refillCount = new AtomicLong();
-        private final AtomicLong fallbackDbHits = new AtomicLong();
-        private final AtomicLong cacheHits = new AtomicLong();
-        private final AtomicLong cacheMisses = new AtomicLong();
-        private volatile Instant lastRefillAt;
+    private static PoolEntry seed(PoolEntry entry, CardCatalog catalog) {
+        PoolEpoch epoch = entry.pool.epoch();
+        int[] ordinals = epoch.readableWith(catalog)
+                ? IntStream.range(0, Math.min(SEED_SIZE, epoch.size()))
+                        .map(position -> catalog.ordinalOf(epoch.card(catalog, position).id()))
+                        .filter(ordinal -> ordinal >= 0)
+                        .toArray()
+                : new int[0];
+        return entry.withPool(new EpochCardPool(SEED_SIZE, epoch.next(catalog, ordinals, SEED_SIZE)), true);
+    }
+
+    /**
+     * One key's counters and, once the key has been read, its pool. Counters carry over when the pool is seeded or
+     * warmed again.
+     */
+    private static final class PoolEntry {
+
+        private final CardPool pool;
+        private final PoolKeyCounters counters;
+        private final boolean seeded;
+        private volatile long lastAccessNanos;
+
+        private PoolEntry(CardPool pool, PoolKeyCounters counters, boolean seeded, long lastAccessNanos) {
+            this.pool = pool;
+            this.counters = counters;
+            this.seeded = seeded;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+
+        PoolEntry withPool(CardPool replacement, boolean seededReplacement) {
+            return new PoolEntry(replacement, counters, seededReplacement, lastAccessNanos);
+        }
+
+        // Hot keys read constantly; refreshing the timestamp at most once a second keeps that off the shared line.
+        void touch(long now) {
+            if (now - lastAccessNanos >= ACCESS_GRANULARITY_NANOS) {
+                lastAccessNanos = now;
+            }
+        }
+
+        boolean idleAt(long now) {
+            return now - lastAccessNanos >= IDLE_BEFORE_SEEDING_NANOS;
+        }
+
+        int weight() {
+            return pool == null ? 1 : pool.capacity();
+        }
     }
-}
\ No newline at end of file
+}
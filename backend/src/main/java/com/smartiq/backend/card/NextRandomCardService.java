@@ -1,152 +1,267 @@
 package com.smartiq.backend.card;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class NextRandomCardService {
 
-    private static final Logger log = LoggerFactory.getLogger(NextRandomCardService.class);
-
     static final int LAST_K_DEFAULT = 20;
-    private static final String DEFAULT_FALLBACK_LANGUAGE = "en";
-    private static final List<String> ALLOWED_SOURCES = List.of(
-            "smartiq-v2",
-            "smartiq-human",
-            "smartiq-verified"
-    );
+    static final int MAX_BATCH_SIZE = 50;
+    private static final int MAX_HISTORY_ATTEMPTS = 8;
+    private static final int SEEDED_PROBE_LIMIT = 16;
+    private static final int SAMPLE_ATTEMPTS = 8;
+    private static final String[] RELAXATION_NAMES = {"cardId", "topic", "category"};
     private static final int MAX_TRACKED_GAMES = 10_000;
-    private static final long TTL_MILLIS = Duration.ofHours(2).toMillis();
-    private static final long CLEANUP_INTERVAL_MILLIS = Duration.ofMinutes(10).toMillis();
+    private static final Duration GAME_TTL = Duration.ofHours(2);
 
-    private final CardRepository cardRepository;
+    private final CardCatalogService cardCatalogService;
     private final GameHistoryStore gameHistoryStore;
-    private final ConcurrentHashMap<String, GameState> gameStates = new ConcurrentHashMap<>();
-    private volatile long lastCleanupAt = 0L;
+    private final SelectionJournal selectionJournal;
+    private final Cache<String, GameState> gameStates;
 
-    public NextRandomCardService(CardRepository cardRepository, GameHistoryStore gameHistoryStore) {
-        this.cardRepository = cardRepository;
+    public NextRandomCardService(CardCatalogService cardCatalogService,
+                                 GameHistoryStore gameHistoryStore,
+                                 SelectionJournal selectionJournal) {
+        this.cardCatalogService = cardCatalogService;
         this.gameHistoryStore = gameHistoryStore;
+        this.selectionJournal = selectionJournal;
+        this.gameStates = Caffeine.newBuilder()
+                .expireAfterAccess(GAME_TTL)
+                .maximumSize(MAX_TRACKED_GAMES)
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener(this::onGameStateRemoved)
+                .build();
+    }
+
+    public CardResponse nextRandom(String language, String gameId, String topic) {
+        return nextRandomBatch(language, gameId, topic, 1).get(0);
     }
 
-    public Card nextRandom(String language, String gameId, String topic) {
+    /**
+     * Plans {@code count} consecutive deck cards for a game in one pass, applying the same no-repeat, category and
+     * topic alternation rules as single picks, and records them in the game history as one append. A plan whose
+     * history snapshot went stale is re-planned against the newer history; after {@link #MAX_HISTORY_ATTEMPTS} lost
+     * races the request fails rather than committing a plan that may repeat a recent card.
+     */
+    public List<CardResponse> nextRandomBatch(String language, String gameId, String topic, int count) {
         String normalizedLanguage = normalizeLanguage(language);
         String normalizedGameId = normalizeRequired(gameId, "gameId");
         String normalizedTopic = normalizeOptional(topic);
+        if (count < 1 || count > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_BATCH_SIZE);
+        }
 
-        maybeCleanup();
+        long startedAt = System.nanoTime();
+        CardCatalog.DeckResolution deck = resolveDeck(cardCatalogService.current(), normalizedLanguage, normalizedTopic);
+        DeckPool pool = deck.pool();
 
-        String effectiveLanguage = normalizedLanguage;
-        List<Card> pool = cardRepository.findDeckPool(effectiveLanguage, normalizedTopic, ALLOWED_SOURCES);
-        boolean languageRelaxed = false;
-        if (pool.isEmpty() && !DEFAULT_FALLBACK_LANGUAGE.equalsIgnoreCase(normalizedLanguage)) {
-            effectiveLanguage = DEFAULT_FALLBACK_LANGUAGE;
-            pool = cardRepository.findDeckPool(effectiveLanguage, normalizedTopic, ALLOWED_SOURCES);
-            languageRelaxed = !pool.isEmpty();
-        }
-        if (pool.isEmpty()) {
-            String topicPart = normalizedTopic == null ? "any" : normalizedTopic;
-            throw new NoSuchElementException("No cards available for language=" + normalizedLanguage + ", topic=" + topicPart);
-        }
+        gameStates.get(normalizedGameId, ignored -> new GameState());
+        for (int attempt = 1; attempt <= MAX_HISTORY_ATTEMPTS; attempt++) {
+            GameHistory snapshot = gameHistoryStore.snapshot(normalizedGameId);
+            DeckPlan plan = planDeck(deck, snapshot.recent(LAST_K_DEFAULT), count);
+            if (!gameHistoryStore.compareAndAppend(normalizedGameId, snapshot, plan.cardMetas(), LAST_K_DEFAULT)) {
+                continue;
+            }
 
-        GameState state = gameStates.computeIfAbsent(normalizedGameId, ignored -> new GameState());
-        synchronized (state) {
-            state.lastAccessAt = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                CardResponse card = plan.cards().get(i);
+                selectionJournal.recordDeckSelection(
+                        normalizedGameId,
+                        card,
+                        plan.cardMetas().get(i).category(),
+                        deck.language(),
+                        pool.size(),
+                        plan.relaxations().get(i),
+                        attempt,
+                        System.nanoTime() - startedAt);
+            }
+            return plan.cards();
+        }
+        throw new ConcurrentModificationException("Game " + normalizedGameId + " is being updated concurrently; retry");
+    }
 
-            List<DeckCardMeta> history = gameHistoryStore.readRecent(normalizedGameId, LAST_K_DEFAULT);
+    /**
+     * Plans {@code count} picks against a history snapshot without touching shared state, so it can be re-run if the
+     * snapshot turns out to be stale.
+     */
+    private static DeckPlan planDeck(CardCatalog.DeckResolution deck, List<DeckCardMeta> recentHistory, int count) {
+        List<DeckCardMeta> history = new ArrayList<>(recentHistory);
+        List<DeckCardMeta> planned = new ArrayList<>(count);
+        List<CardResponse> selected = new ArrayList<>(count);
+        List<List<String>> relaxations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
             DeckCardMeta last = history.isEmpty() ? null : history.get(history.size() - 1);
             Set<String> recentIds = recentCardIds(history);
             List<String> relaxed = new ArrayList<>();
-            if (languageRelaxed) {
+            if (deck.languageRelaxed()) {
                 relaxed.add("language");
             }
 
-            Card selected = pickWithRelaxation(pool, last, recentIds, relaxed);
-            gameHistoryStore.append(
-                    normalizedGameId,
-                    new DeckCardMeta(selected.getId(), resolveCategory(selected), selected.getTopic()),
-                    LAST_K_DEFAULT
-            );
+            CardResponse card = pickWithRelaxation(deck.pool(), last, recentIds, relaxed);
+            DeckCardMeta cardMeta = new DeckCardMeta(card.id(), resolveCategory(card), card.topic());
+            history.add(cardMeta);
+            if (history.size() > LAST_K_DEFAULT) {
+                history.remove(0);
+            }
+            planned.add(cardMeta);
+            selected.add(card);
+            relaxations.add(relaxed);
+        }
+        return new DeckPlan(selected, planned, relaxations);
+    }
+
+    /**
+     * Seeded deck mode: the game's deck is a fixed permutation of the pool derived from its seed, so the only state
+     * kept per game is a {@link SeededDeckCursor}. A caller-supplied {@code position} lets any node resume the game.
+     */
+    SeededBatch nextSeededBatch(String language, String gameId, String topic, int count, Long seed, Long position) {
+        String normalizedLanguage = normalizeLanguage(language);
+        String normalizedGameId = normalizeRequired(gameId, "gameId");
+        String normalizedTopic = normalizeOptional(topic);
+        if (count < 1 || count > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        if (position != null && position < 0) {
+            throw new IllegalArgumentException("cursor must not be negative");
+        }
 
-            log.info("nextRandom gameId={} cardId={} category={} topic={} language={} pool={} relaxed={}",
-                    normalizedGameId,
-                    selected.getId(),
-                    resolveCategory(selected),
-                    selected.getTopic(),
-                    effectiveLanguage,
-                    pool.size(),
-                    relaxed);
+        CardCatalog catalog = cardCatalogService.current();
+        DeckPool pool = resolveDeck(catalog, normalizedLanguage, normalizedTopic).pool();
+
+        GameState state = gameStates.get(normalizedGameId, ignored -> new GameState());
+        while (true) {
+            SeededDeckCursor current = state.seededCursor.get();
+            long resolvedSeed = seed != null ? seed
+                    : current != null ? current.seed()
+                    : SeededDeckPermutation.seedFor(normalizedGameId);
+            long next = position != null ? position
+                    : current != null && current.seed() == resolvedSeed && current.catalogVersion() == catalog.version()
+                    ? current.position()
+                    : 0L;
+
+            List<CardResponse> selected = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long served = seededPosition(pool, resolvedSeed, next);
+                selected.add(pool.card(SeededDeckPermutation.indexAt(pool.size(), resolvedSeed, served)));
+                next = served + 1;
+            }
 
-            return selected;
+            SeededDeckCursor cursor = new SeededDeckCursor(resolvedSeed, next, catalog.version());
+            if (state.seededCursor.compareAndSet(current, cursor)) {
+                return new SeededBatch(selected, cursor);
+            }
         }
     }
 
-    static Card pickWithRelaxation(List<Card> pool,
-                                   DeckCardMeta last,
-                                   Set<String> recentIds,
-                                   List<String> relaxed) {
-        List<Card> strict = applyConstraints(pool, last, recentIds, true, true, true);
-        if (!strict.isEmpty()) {
-            return randomCard(strict);
+    /**
+     * First position at or after {@code position} whose card alternates category and topic with the card served at
+     * {@code position - 1} and, when the probes reach into the next pass of the permutation, is not among the last
+     * {@link #LAST_K_DEFAULT} cards served, probing at most {@link #SEEDED_PROBE_LIMIT} positions per relaxation level.
+     * Positions skipped over come back in the next pass of the permutation.
+     */
+    static long seededPosition(DeckPool pool, long seed, long position) {
+        if (position == 0) {
+            return 0;
         }
+        int lastIndex = SeededDeckPermutation.indexAt(pool.size(), seed, position - 1);
+        int lastCategory = pool.categoryCodeAt(lastIndex);
+        int lastTopic = pool.topicCodeAt(lastIndex);
+        Set<String> recentIds = seededRecentIds(pool, seed, position);
+        int firstLevel = recentIds.isEmpty() ? DeckPool.RELAX_CARD_ID : DeckPool.STRICT;
+        for (int level = firstLevel; level <= DeckPool.RELAX_TOPIC; level++) {
+            for (int probe = 0; probe < SEEDED_PROBE_LIMIT; probe++) {
+                int index = SeededDeckPermutation.indexAt(pool.size(), seed, position + probe);
+                if (pool.accepts(index, level, lastCategory, lastTopic, recentIds)) {
+                    return position + probe;
+                }
+            }
+        }
+        return position;
+    }
 
-        relaxed.add("cardId");
-        List<Card> relaxCardId = applyConstraints(pool, last, recentIds, true, true, false);
-        if (!relaxCardId.isEmpty()) {
-            return randomCard(relaxCardId);
+    /**
+     * Ids at the positions before {@code position} that may hold the last {@link #LAST_K_DEFAULT} served cards, or
+     * none when they and every probe from {@code position} fall in the same pass: one pass of the permutation never
+     * repeats a card, so only a pass boundary can bring a recent card straight back. The cursor does not record which
+     * positions the probe skipped, so the window spans twice K positions, which covers the last K served cards
+     * unless the probe skipped more positions than it served.
+     */
+    private static Set<String> seededRecentIds(DeckPool pool, long seed, long position) {
+        int size = pool.size();
+        int window = Math.min(2 * LAST_K_DEFAULT, size - 1);
+        long from = Math.max(0, position - window);
+        if (window <= 0 || from / size == (position + SEEDED_PROBE_LIMIT - 1) / size) {
+            return Set.of();
+        }
+        Set<String> ids = new HashSet<>();
+        for (long recent = from; recent < position; recent++) {
+            ids.add(pool.card(SeededDeckPermutation.indexAt(size, seed, recent)).id());
         }
+        return ids;
+    }
 
-        relaxed.add("topic");
-        List<Card> relaxTopic = applyConstraints(pool, last, recentIds, true, false, false);
-        if (!relaxTopic.isEmpty()) {
-            return randomCard(relaxTopic);
+    static CardResponse pickWithRelaxation(DeckPool pool,
+                                           DeckCardMeta last,
+                                           Set<String> recentIds,
+                                           List<String> relaxed) {
+        if (pool.isEmpty()) {
+            throw new NoSuchElementException("No cards available");
         }
 
-        relaxed.add("category");
-        return randomCard(pool);
-    }
+        int lastCategory = last == null ? -1 : pool.categoryCode(last.category());
+        int lastTopic = last == null ? -1 : pool.topicCode(last.topic());
 
-    private static List<Card> applyConstraints(List<Card> pool,
-                                               DeckCardMeta last,
-                                               Set<String> recentIds,
-                                               boolean enforceCategory,
-                                               boolean enforceTopic,
-                                               boolean enforceCardId) {
-        List<Card> result = new ArrayList<>(pool.size());
-        for (Card card : pool) {
-            if (enforceCategory && last != null && resolveCategory(card).equalsIgnoreCase(last.category())) {
-                continue;
-            }
-            if (enforceTopic && last != null && equalsIgnoreCase(card.getTopic(), last.topic())) {
-                continue;
+        int sampled = sample(pool, DeckPool.STRICT, lastCategory, lastTopic, recentIds);
+        if (sampled >= 0) {
+            return pool.card(sampled);
+        }
+
+        long[] recentMask = pool.recentMask(recentIds);
+        int[] eligible = pool.eligibleCounts(lastCategory, lastTopic, recentMask);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int level = DeckPool.STRICT; level < DeckPool.LEVELS; level++) {
+            if (level > DeckPool.STRICT) {
+                relaxed.add(RELAXATION_NAMES[level - 1]);
             }
-            if (enforceCardId && recentIds.contains(card.getId())) {
-                continue;
+            if (eligible[level] > 0) {
+                int rank = random.nextInt(eligible[level]);
+                return pool.card(pool.selectEligible(level, rank, lastCategory, lastTopic, recentMask));
             }
-            result.add(card);
         }
-        return result;
+
+        relaxed.add(RELAXATION_NAMES[DeckPool.LEVELS - 1]);
+        return pool.card(random.nextInt(pool.size()));
     }
 
-    private static Card randomCard(List<Card> cards) {
-        if (cards.isEmpty()) {
-            throw new NoSuchElementException("No cards available");
+    /**
+     * Draws random cards and tests the precomputed codes in place. Returns -1 after {@link #SAMPLE_ATTEMPTS} misses,
+     * which only means the caller should fall back to the exact bitset scan.
+     */
+    private static int sample(DeckPool pool, int level, int lastCategory, int lastTopic, Set<String> recentIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+            int candidate = random.nextInt(pool.size());
+            if (pool.accepts(candidate, level, lastCategory, lastTopic, recentIds)) {
+                return candidate;
+            }
         }
-        int idx = ThreadLocalRandom.current().nextInt(cards.size());
-        return cards.get(idx);
+        return -1;
     }
 
     private static Set<String> recentCardIds(List<DeckCardMeta> history) {
@@ -162,10 +277,10 @@ public class NextRandomCardService {
         return ids;
     }
 
-    static String resolveCategory(Card card) {
-        String raw = card.getCategory();
+    static String resolveCategory(CardResponse card) {
+        String raw = card.category();
         if (raw == null || raw.isBlank()) {
-            raw = card.getSubtopic();
+            raw = card.subtopic();
         }
         if (raw == null || raw.isBlank()) {
             return "OPEN";
@@ -181,37 +296,23 @@ public class NextRandomCardService {
         };
     }
 
-    private void maybeCleanup() {
-        long now = System.currentTimeMillis();
-        if (now - lastCleanupAt < CLEANUP_INTERVAL_MILLIS) {
-            return;
+    private static CardCatalog.DeckResolution resolveDeck(CardCatalog catalog, String normalizedLanguage, String normalizedTopic) {
+        CardCatalog.DeckResolution deck = catalog.resolveDeck(normalizedLanguage, normalizedTopic);
+        if (deck == null) {
+            String topicPart = normalizedTopic == null ? "any" : normalizedTopic;
+            throw new NoSuchElementException("No cards available for language=" + normalizedLanguage + ", topic=" + topicPart);
         }
-        lastCleanupAt = now;
+        return deck;
+    }
 
-        List<String> expiredGameIds = gameStates.entrySet().stream()
-                .filter(entry -> now - entry.getValue().lastAccessAt > TTL_MILLIS)
-                .map(java.util.Map.Entry::getKey)
-                .toList();
-        for (String gameId : expiredGameIds) {
-            gameStates.remove(gameId);
+    /**
+     * Runs on Caffeine's maintenance executor, never on a request thread, whenever a game expires or is pushed out
+     * by the size cap.
+     */
+    private void onGameStateRemoved(String gameId, GameState state, RemovalCause cause) {
+        if (gameId != null && cause.wasEvicted()) {
             gameHistoryStore.evict(gameId);
         }
-
-        int overflow = gameStates.size() - MAX_TRACKED_GAMES;
-        if (overflow <= 0) {
-            return;
-        }
-
-        List<String> oldestKeys = gameStates.entrySet().stream()
-                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccessAt))
-                .limit(overflow)
-                .map(java.util.Map.Entry::getKey)
-                .toList();
-
-        for (String key : oldestKeys) {
-            gameStates.remove(key);
-            gameHistoryStore.evict(key);
-        }
     }
 
     private static String normalizeRequired(String value, String fieldName) {
@@ -236,14 +337,13 @@ public class NextRandomCardService {
         return value.trim();
     }
 
-    private static boolean equalsIgnoreCase(String a, String b) {
-        if (a == null || b == null) {
-            return false;
-        }
-        return a.equalsIgnoreCase(b);
+    record SeededBatch(List<CardResponse> cards, SeededDeckCursor cursor) {
+    }
+
+    private record DeckPlan(List<CardResponse> cards, List<DeckCardMeta> cardMetas, List<List<String>> relaxations) {
     }
 
     private static final class GameState {
-        private long lastAccessAt = System.currentTimeMillis();
+        private final AtomicReference<SeededDeckCursor> seededCursor = new AtomicReference<>();
     }
 }
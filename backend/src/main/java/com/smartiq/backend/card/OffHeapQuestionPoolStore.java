@@ -0,0 +1,75 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.QuestionPoolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link InMemoryQuestionPoolStore} whose epochs are {@link SerializedPoolEpoch}s in direct memory, trading a decode
+ * per served card for a pool footprint that stays off the heap.
+ */
+@Component
+@Profile("offheap-store")
+public class OffHeapQuestionPoolStore implements QuestionPoolStore {
+
+    private final InMemoryQuestionPoolStore delegate;
+    private final MeterRegistry meterRegistry;
+
+    public OffHeapQuestionPoolStore(QuestionPoolProperties properties,
+                                    CardCatalogService cardCatalogService,
+                                    MeterRegistry meterRegistry) {
+        this.delegate = new InMemoryQuestionPoolStore(properties, cardCatalogService, SerializedPoolEpoch.EMPTY, System::nanoTime);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        meterRegistry.gauge("smartiq.pool.offheap.bytes", this, OffHeapQuestionPoolStore::offHeapBytes);
+        delegate.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        delegate.stop();
+    }
+
+    @Override
+    public CardPool poolForKey(QuestionPoolKey key) {
+        return delegate.poolForKey(key);
+    }
+
+    @Override
+    public PoolKeyCounters countersForKey(QuestionPoolKey key) {
+        return delegate.countersForKey(key);
+    }
+
+    @Override
+    public int poolSize(QuestionPoolKey key) {
+        return delegate.poolSize(key);
+    }
+
+    @Override
+    public List<PoolKeyStats> snapshot() {
+        return delegate.snapshot();
+    }
+
+    @Override
+    public void forEachPool(BiConsumer<QuestionPoolKey, CardPool> visitor) {
+        delegate.forEachPool(visitor);
+    }
+
+    /**
+     * Direct memory held by the current epoch of every pool.
+     */
+    long offHeapBytes() {
+        long[] bytes = new long[1];
+        delegate.forEachPool((key, pool) -> bytes[0] += ((SerializedPoolEpoch) pool.epoch()).offHeapBytes());
+        return bytes[0];
+    }
+}
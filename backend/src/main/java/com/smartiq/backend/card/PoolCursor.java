@@ -0,0 +1,7 @@
+package com.smartiq.backend.card;
+
+/**
+ * A session's read position in one pool key's epoch.
+ */
+record PoolCursor(long epoch, int position) {
+}
@@ -0,0 +1,86 @@
+package com.smartiq.backend.card;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Demand seen by one pool key: requests, their exponentially weighted rate over the sizing window, the observed
+ * refill latency, and the watermark and target {@link PoolSizer} last derived from them. Request counting is a
+ * {@link LongAdder} increment; sampling only happens during a recompute, which runs on one thread at a time.
+ */
+final class PoolDemand {
+
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final LongAdder requests = new LongAdder();
+    private final long createdAt;
+    private long sampledAt;
+    private long sampledRequests;
+    private volatile double rate;
+    private volatile double refillLatencySeconds = -1;
+    private volatile int watermark;
+    private volatile int target;
+
+    PoolDemand(long now, int watermark, int target) {
+        this.createdAt = now;
+        this.sampledAt = now;
+        this.watermark = watermark;
+        this.target = target;
+    }
+
+    void recordRequest() {
+        requests.increment();
+    }
+
+    /**
+     * Time from a refill being requested to it having run, queueing included.
+     */
+    void recordRefillLatency(long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        double current = refillLatencySeconds;
+        refillLatencySeconds = current < 0 ? seconds : current + LATENCY_WEIGHT * (seconds - current);
+    }
+
+    /**
+     * Requests per second, weighted towards the last {@code windowNanos}.
+     */
+    double rate() {
+        return rate;
+    }
+
+    /**
+     * Smoothed refill latency, or a negative value before the first refill.
+     */
+    double refillLatencySeconds() {
+        return refillLatencySeconds;
+    }
+
+    int watermark() {
+        return watermark;
+    }
+
+    int target() {
+        return target;
+    }
+
+    boolean observedFor(long now, long nanos) {
+        return now - createdAt >= nanos;
+    }
+
+    void sample(long now, long windowNanos) {
+        long elapsed = now - sampledAt;
+        if (elapsed <= 0) {
+            return;
+        }
+        long total = requests.sum();
+        double instant = (total - sampledRequests) * 1_000_000_000.0 / elapsed;
+        double alpha = 1 - Math.exp(-(double) elapsed / Math.max(1, windowNanos));
+        rate += alpha * (instant - rate);
+        sampledRequests = total;
+        sampledAt = now;
+    }
+
+    void resize(int watermark, int target) {
+        this.watermark = watermark;
+        this.target = target;
+    }
+}
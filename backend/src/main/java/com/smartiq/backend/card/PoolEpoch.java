@@ -0,0 +1,64 @@
+package com.smartiq.backend.card;
+
+/**
+ * Immutable, duplicate-free run of cards for one pool key. Refills append to an epoch without moving existing
+ * entries, so a session cursor into it stays valid; a rotation starts a new epoch with a new {@link #number()}.
+ * Cards come in as ordinals of a {@link CardCatalog} and are read back against the catalog that is current at read
+ * time; appending to or rotating an epoch keeps its representation.
+ */
+abstract class PoolEpoch {
+
+    static final PoolEpoch EMPTY = HeapPoolEpoch.EMPTY;
+
+    private final long number;
+
+    PoolEpoch(long number) {
+        this.number = number;
+    }
+
+    /**
+     * An on-heap epoch holding exactly {@code ordinals} under the given number, e.g. as read back from a shared
+     * store.
+     */
+    static PoolEpoch of(long number, CardCatalog catalog, int[] ordinals) {
+        return HeapPoolEpoch.of(number, catalog, ordinals);
+    }
+
+    final long number() {
+        return number;
+    }
+
+    final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    abstract int size();
+
+    /**
+     * The card at {@code position}, resolved against the current {@code catalog}; null when this epoch is not
+     * {@link #readableWith readable} with it.
+     */
+    abstract CardResponse card(CardCatalog catalog, int position);
+
+    /**
+     * Whether the card at {@code ordinal} of {@code catalog} is in this epoch.
+     */
+    abstract boolean contains(CardCatalog catalog, int ordinal);
+
+    /**
+     * Whether this epoch can be read against {@code catalog}. An epoch that cannot is replaced by the next refill.
+     */
+    boolean readableWith(CardCatalog catalog) {
+        return true;
+    }
+
+    /**
+     * This epoch with the cards not already in it appended in order, up to {@code capacity} entries in total.
+     */
+    abstract PoolEpoch append(CardCatalog catalog, int[] ordinals, int capacity);
+
+    /**
+     * A new epoch holding only the given cards, up to {@code capacity} entries.
+     */
+    abstract PoolEpoch next(CardCatalog catalog, int[] ordinals, int capacity);
+}
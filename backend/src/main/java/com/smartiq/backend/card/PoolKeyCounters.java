@@ -0,0 +1,73 @@
+package com.smartiq.backend.card;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live statistics for one pool key. Handed out once per key so hot paths and gauges update and read it directly
+ * instead of going through a store-wide snapshot.
+ */
+public final class PoolKeyCounters {
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder refillCount = new LongAdder();
+    private final LongAdder fallbackDbHits = new LongAdder();
+    private volatile Instant lastRefillAt;
+
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    public void recordRefill() {
+        refillCount.increment();
+        lastRefillAt = Instant.now();
+    }
+
+    public void recordFallbackDbHit() {
+        fallbackDbHits.increment();
+    }
+
+    /**
+     * Adds counts carried over from a previous process, e.g. a pool snapshot.
+     */
+    public void restore(long hits, long misses, long refills, long dbHits, Instant refilledAt) {
+        cacheHits.add(hits);
+        cacheMisses.add(misses);
+        refillCount.add(refills);
+        fallbackDbHits.add(dbHits);
+        if (refilledAt != null && lastRefillAt == null) {
+            lastRefillAt = refilledAt;
+        }
+    }
+
+    public long cacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long cacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public long refillCount() {
+        return refillCount.sum();
+    }
+
+    public long fallbackDbHits() {
+        return fallbackDbHits.sum();
+    }
+
+    public Instant lastRefillAt() {
+        return lastRefillAt;
+    }
+
+    public double cacheHitRate() {
+        long hits = cacheHits();
+        long misses = cacheMisses();
+        return (hits + misses) == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+}
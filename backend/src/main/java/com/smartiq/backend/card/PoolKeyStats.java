@@ -1,6 +1,7 @@
 package com.smartiq.backend.card;
 
 import java.time.Instant;
+import java.util.Comparator;
 
 public record PoolKeyStats(
         String topic,
@@ -14,4 +15,25 @@ public record PoolKeyStats(
         long cacheMisses,
         double cacheHitRate
 ) {
-}
\ No newline at end of file
+
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    static final Comparator<PoolKeyStats> BY_KEY = Comparator.comparing(PoolKeyStats::topic, NULLS_FIRST)
+            .thenComparing(PoolKeyStats::difficulty, NULLS_FIRST)
+            .thenComparing(PoolKeyStats::language, NULLS_FIRST);
+
+    static PoolKeyStats of(QuestionPoolKey key, int poolSize, PoolKeyCounters counters) {
+        return new PoolKeyStats(
+                key.topic(),
+                key.difficulty(),
+                key.language(),
+                poolSize,
+                counters.refillCount(),
+                counters.lastRefillAt(),
+                counters.fallbackDbHits(),
+                counters.cacheHits(),
+                counters.cacheMisses(),
+                counters.cacheHitRate()
+        );
+    }
+}
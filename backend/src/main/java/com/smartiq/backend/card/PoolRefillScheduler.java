@@ -0,0 +1,117 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.QuestionPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs pool refills on a small dedicated set of worker threads, so blocking repository calls never land on the
+ * common ForkJoinPool. Pending refills are ordered by how depleted their pool is, a key already queued or running
+ * is coalesced into the pending refill, and the backlog is bounded; overflow is rejected and counted.
+ */
+@Component
+public class PoolRefillScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolRefillScheduler.class);
+
+    private static final int DEFAULT_THREADS = 2;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private final PriorityBlockingQueue<RefillTask> queue = new PriorityBlockingQueue<>(64,
+            Comparator.comparingDouble(RefillTask::fillFraction).thenComparingLong(RefillTask::sequence));
+    private final Set<QuestionPoolKey> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int queueCapacity;
+    private final ExecutorService workers;
+    private final Timer latency;
+    private final Counter rejected;
+    private final Counter coalesced;
+
+    public PoolRefillScheduler(QuestionPoolProperties properties, MeterRegistry meterRegistry) {
+        int threads = properties.refillThreads() > 0 ? properties.refillThreads() : DEFAULT_THREADS;
+        this.queueCapacity = properties.refillQueueCapacity() > 0 ? properties.refillQueueCapacity() : DEFAULT_QUEUE_CAPACITY;
+        this.latency = meterRegistry.timer("smartiq.pool.refill.latency");
+        this.rejected = meterRegistry.counter("smartiq.pool.refill.rejected");
+        this.coalesced = meterRegistry.counter("smartiq.pool.refill.coalesced");
+        meterRegistry.gauge("smartiq.pool.refill.queue.depth", queue, PriorityBlockingQueue::size);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pool-refill-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Queues a refill for {@code key} unless one is already pending. Lower {@code fillFraction} runs first.
+     *
+     * @return false if the backlog is full and the refill was rejected
+     */
+    public boolean submit(QuestionPoolKey key, double fillFraction, Runnable refill) {
+        if (!pending.add(key)) {
+            coalesced.increment();
+            return true;
+        }
+        if (queue.size() >= queueCapacity) {
+            pending.remove(key);
+            rejected.increment();
+            return false;
+        }
+        queue.add(new RefillTask(key, fillFraction, sequence.getAndIncrement(), refill));
+        return true;
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            RefillTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long startedAt = System.nanoTime();
+            try {
+                task.refill().run();
+            } catch (RuntimeException ex) {
+                log.warn("Pool refill failed topic={} difficulty={} language={}",
+                        task.key().topic(), task.key().difficulty(), task.key().language(), ex);
+            } finally {
+                pending.remove(task.key());
+                latency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private record RefillTask(QuestionPoolKey key, double fillFraction, long sequence, Runnable refill) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.PoolSizingProperties;
+import com.smartiq.backend.config.QuestionPoolProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Sizes each key's pool from its demand. The low watermark covers the cards a key consumes while a refill is in
+ * flight ({@code rate x refill latency x safety factor}); the target adds {@code horizonSeconds} of demand on top.
+ * Both are clamped between the per-key floors and the configured {@code low-watermark-per-key} and
+ * {@code refill-target-per-key}. When the targets add up to more than {@code maxTotalEntries}, the part of each
+ * target above the floor is scaled down proportionally; floors win if the cap cannot even cover them.
+ */
+@Component
+public class PoolSizer {
+
+    private static final long RECOMPUTE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double DEFAULT_REFILL_LATENCY_SECONDS = 1.0;
+    private static final int SHRINK_FACTOR = 2;
+
+    private final PoolSizingProperties properties;
+    private final LongSupplier clock;
+    private final Map<QuestionPoolKey, PoolDemand> demands = new ConcurrentHashMap<>();
+    private final AtomicLong nextRecomputeAt;
+    private final int maxWatermark;
+    private final int maxTarget;
+    private final int minWatermark;
+    private final int minTarget;
+    private final long windowNanos;
+
+    @Autowired
+    public PoolSizer(QuestionPoolProperties poolProperties, PoolSizingProperties properties) {
+        this(poolProperties, properties, System::nanoTime);
+    }
+
+    PoolSizer(QuestionPoolProperties poolProperties, PoolSizingProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.maxWatermark = Math.max(0, poolProperties.lowWatermarkPerKey());
+        this.maxTarget = Math.max(1, poolProperties.refillTargetPerKey());
+        this.minWatermark = Math.min(Math.max(0, properties.minWatermarkPerKey()), maxWatermark);
+        this.minTarget = Math.min(Math.max(1, properties.minTargetPerKey()), maxTarget);
+        this.windowNanos = TimeUnit.SECONDS.toNanos(Math.max(1, properties.windowSeconds()));
+        this.nextRecomputeAt = new AtomicLong(clock.getAsLong());
+    }
+
+    PoolDemand demandFor(QuestionPoolKey key) {
+        PoolDemand demand = demands.get(key);
+        if (demand != null) {
+            return demand;
+        }
+        return demands.computeIfAbsent(key, ignored -> properties.adaptive()
+                ? new PoolDemand(clock.getAsLong(), minWatermark, minTarget)
+                : new PoolDemand(clock.getAsLong(), maxWatermark, maxTarget));
+    }
+
+    /**
+     * Drops the key's demand, e.g. once the key is no longer in the catalog.
+     */
+    void forget(QuestionPoolKey key) {
+        demands.remove(key);
+    }
+
+    /**
+     * Recomputes every key's watermark and target if at least a second has passed since the last run. Only one
+     * caller wins each interval.
+     *
+     * @return whether this call recomputed
+     */
+    boolean recomputeIfDue() {
+        if (!properties.adaptive()) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        long due = nextRecomputeAt.get();
+        if (now - due < 0 || !nextRecomputeAt.compareAndSet(due, now + RECOMPUTE_INTERVAL_NANOS)) {
+            return false;
+        }
+        recompute(now);
+        return true;
+    }
+
+    /**
+     * Whether a pool holding {@code poolSize} cards is far enough above its key's target to be rotated down. Keys
+     * are only shrunk once their demand has been observed for a full window, so a restored snapshot is not thrown
+     * away at startup.
+     */
+    boolean oversized(PoolDemand demand, int poolSize) {
+        return properties.adaptive()
+                && poolSize > SHRINK_FACTOR * demand.target()
+                && demand.observedFor(clock.getAsLong(), windowNanos);
+    }
+
+    private synchronized void recompute(long now) {
+        List<PoolDemand> all = new ArrayList<>(demands.values());
+        int[] watermarks = new int[all.size()];
+        int[] targets = new int[all.size()];
+        long total = 0;
+        for (int i = 0; i < all.size(); i++) {
+            PoolDemand demand = all.get(i);
+            demand.sample(now, windowNanos);
+            double rate = demand.rate();
+            double latency = demand.refillLatencySeconds() < 0 ? DEFAULT_REFILL_LATENCY_SECONDS : demand.refillLatencySeconds();
+
+            int watermark = clamp(Math.ceil(rate * latency * properties.safetyFactor()), minWatermark, maxWatermark);
+            int target = clamp(watermark + Math.ceil(rate * properties.horizonSeconds()), Math.max(minTarget, watermark), maxTarget);
+            watermarks[i] = watermark;
+            targets[i] = target;
+            total += target;
+        }
+
+        long floors = (long) minTarget * all.size();
+        double scale = properties.maxTotalEntries() > 0 && total > properties.maxTotalEntries()
+                ? Math.max(0.0, (double) (properties.maxTotalEntries() - floors) / (total - floors))
+                : 1.0;
+        for (int i = 0; i < all.size(); i++) {
+            int target = minTarget + (int) ((targets[i] - minTarget) * scale);
+            all.get(i).resize(Math.min(watermarks[i], target), target);
+        }
+    }
+
+    private static int clamp(double value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, value));
+    }
+}
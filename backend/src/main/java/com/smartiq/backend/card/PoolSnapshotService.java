@@ -0,0 +1,233 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.PoolSnapshotProperties;
+import com.smartiq.backend.config.QuestionPoolProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists pool contents and counters to a local file so a restarted instance comes up with warm pools. Cards are
+ * stored as catalog ordinals, which are only meaningful for the catalog version recorded in the header; a snapshot
+ * taken against different card data is ignored.
+ */
+@Component
+public class PoolSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolSnapshotService.class);
+
+    private static final int MAGIC = 0x53495150;
+    private static final int FORMAT_VERSION = 1;
+
+    private final PoolSnapshotProperties properties;
+    private final QuestionPoolProperties poolProperties;
+    private final QuestionPoolStore poolStore;
+    private final CardCatalogService cardCatalogService;
+    private ScheduledExecutorService writer;
+
+    public PoolSnapshotService(PoolSnapshotProperties properties,
+                               QuestionPoolProperties poolProperties,
+                               QuestionPoolStore poolStore,
+                               CardCatalogService cardCatalogService) {
+        this.properties = properties;
+        this.poolProperties = poolProperties;
+        this.poolStore = poolStore;
+        this.cardCatalogService = cardCatalogService;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled() || properties.intervalSeconds() <= 0) {
+            return;
+        }
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pool-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::writeSafely, properties.intervalSeconds(), properties.intervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writer != null) {
+            writer.shutdownNow();
+        }
+        if (enabled()) {
+            writeSafely();
+        }
+    }
+
+    /**
+     * Loads the snapshot into the pool store if it matches the current catalog, returning the number of keys restored.
+     */
+    int restore() {
+        if (!enabled()) {
+            return 0;
+        }
+        Path path = Path.of(properties.path());
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring pool snapshot with unknown format path={}", path);
+                return 0;
+            }
+
+            CardCatalog catalog = cardCatalogService.current();
+            long catalogVersion = buffer.getLong();
+            if (catalogVersion != catalog.version()) {
+                log.info("Ignoring pool snapshot for catalog version={} current={}",
+                        Long.toHexString(catalogVersion), Long.toHexString(catalog.version()));
+                return 0;
+            }
+
+            int keys = buffer.getInt();
+            for (int k = 0; k < keys; k++) {
+                QuestionPoolKey key = new QuestionPoolKey(readString(buffer), readString(buffer), readString(buffer));
+                long hits = buffer.getLong();
+                long misses = buffer.getLong();
+                long refills = buffer.getLong();
+                long dbHits = buffer.getLong();
+                long lastRefillMillis = buffer.getLong();
+                int count = checkedLength(buffer, buffer.getInt(), Integer.BYTES);
+                int[] ordinals = new int[count];
+                int valid = 0;
+                for (int i = 0; i < count; i++) {
+                    int ordinal = buffer.getInt();
+                    if (ordinal >= 0 && ordinal < catalog.size()) {
+                        ordinals[valid++] = ordinal;
+                    }
+                }
+                poolStore.poolForKey(key).fill(catalog, Arrays.copyOf(ordinals, valid));
+                poolStore.countersForKey(key).restore(hits, misses, refills, dbHits,
+                        lastRefillMillis < 0 ? null : Instant.ofEpochMilli(lastRefillMillis));
+            }
+            log.info("Pool snapshot restored keys={} path={}", keys, path);
+            return keys;
+        } catch (IOException | BufferUnderflowException ex) {
+            log.warn("Ignoring unreadable pool snapshot path={}", path, ex);
+            return 0;
+        }
+    }
+
+    void write() throws IOException {
+        CardCatalog catalog = cardCatalogService.current();
+        List<QuestionPoolKey> keys = new ArrayList<>();
+        List<PoolEpoch> epochs = new ArrayList<>();
+        poolStore.forEachPool((key, pool) -> {
+            keys.add(key);
+            epochs.add(pool.epoch());
+        });
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(catalog.version());
+            out.writeInt(keys.size());
+            for (int k = 0; k < keys.size(); k++) {
+                QuestionPoolKey key = keys.get(k);
+                PoolKeyCounters counters = poolStore.countersForKey(key);
+                writeString(out, key.topic());
+                writeString(out, key.difficulty());
+                writeString(out, key.language());
+                out.writeLong(counters.cacheHits());
+                out.writeLong(counters.cacheMisses());
+                out.writeLong(counters.refillCount());
+                out.writeLong(counters.fallbackDbHits());
+                out.writeLong(counters.lastRefillAt() == null ? -1 : counters.lastRefillAt().toEpochMilli());
+
+                PoolEpoch epoch = epochs.get(k);
+                int size = epoch.readableWith(catalog) ? epoch.size() : 0;
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    out.writeInt(catalog.ordinalOf(epoch.card(catalog, i).id()));
+                }
+            }
+        }
+
+        Path path = Path.of(properties.path());
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, bytes.toByteArray());
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.info("Pool snapshot written keys={} bytes={} path={}", keys.size(), bytes.size(), path);
+    }
+
+    private void writeSafely() {
+        try {
+            write();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Pool snapshot write failed path={}", properties.path(), ex);
+        }
+    }
+
+    private boolean enabled() {
+        return poolProperties.enabled() && properties.path() != null && !properties.path().isBlank();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] encoded = new byte[checkedLength(buffer, length, 1)];
+        buffer.get(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@code length} as read from the snapshot, if the rest of the file can hold that many elements of
+     * {@code elementBytes}; a corrupt or truncated file is reported as unreadable instead of sizing an array.
+     */
+    private static int checkedLength(ByteBuffer buffer, int length, int elementBytes) throws IOException {
+        if (length < 0 || length > buffer.remaining() / elementBytes) {
+            throw new IOException("Corrupt pool snapshot: length " + length + " at offset " + buffer.position());
+        }
+        return length;
+    }
+}
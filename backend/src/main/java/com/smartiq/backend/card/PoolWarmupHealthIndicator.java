@@ -0,0 +1,29 @@
+package com.smartiq.backend.card;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports OUT_OF_SERVICE until question pool warmup has finished and pools meet the configured fill fraction.
+ * Part of the readiness health group, so traffic is only routed once pools can serve it.
+ */
+@Component
+public class PoolWarmupHealthIndicator implements HealthIndicator {
+
+    private final QuestionPoolService questionPoolService;
+
+    public PoolWarmupHealthIndicator(QuestionPoolService questionPoolService) {
+        this.questionPoolService = questionPoolService;
+    }
+
+    @Override
+    public Health health() {
+        QuestionPoolService.PoolReadiness readiness = questionPoolService.readiness();
+        Health.Builder builder = readiness.ready() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("keys", readiness.keys())
+                .withDetail("readyKeys", readiness.readyKeys())
+                .build();
+    }
+}
@@ -1,6 +1,13 @@
 package com.smartiq.backend.card;
 
+/**
+ * Pool key for a (topic, difficulty, language) filter. A null component, requested as blank or {@value #ANY}, is a
+ * wildcard: such keys have no pool of their own and are served from the concrete keys they cover.
+ */
 public record QuestionPoolKey(String topic, String difficulty, String language) {
+
+    static final String ANY = "any";
+
     public static QuestionPoolKey from(String topic, String difficulty, String language) {
         return new QuestionPoolKey(
                 normalize(topic),
@@ -9,7 +16,24 @@ public record QuestionPoolKey(String topic, String difficulty, String language)
         );
     }
 
+    boolean isWildcard() {
+        return topic == null || difficulty == null || language == null;
+    }
+
+    /**
+     * Whether the concrete {@code key} is one of the keys this (possibly wildcard) key stands for.
+     */
+    boolean covers(QuestionPoolKey key) {
+        return (topic == null || topic.equals(key.topic))
+                && (difficulty == null || difficulty.equals(key.difficulty))
+                && (language == null || language.equals(key.language));
+    }
+
     private static String normalize(String value) {
-        return value == null ? null : value.trim().toLowerCase();
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String normalized = value.trim().toLowerCase();
+        return ANY.equals(normalized) ? null : normalized;
     }
 }
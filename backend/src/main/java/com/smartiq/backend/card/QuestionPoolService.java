@@ -1,258 +1,527 @@
 package com.smartiq.backend.card;
 
 import com.smartiq.backend.config.QuestionPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class QuestionPoolService {
 
     private static final Logger log = LoggerFactory.getLogger(QuestionPoolService.class);
 
+    private static final int DEFAULT_WARMUP_PARALLELISM = 4;
+    private static final int FALLBACK_RESERVATION_ATTEMPTS = 5;
+    private static final int FALLBACK_DB_BATCH_SIZE = 32;
+    private static final int MAX_WILDCARD_PROBES = 8;
+
     private final CardRepository cardRepository;
+    private final CardCatalogService cardCatalogService;
     private final SessionCardTrackerService sessionCardTrackerService;
     private final QuestionPoolProperties properties;
     private final QuestionPoolStore poolStore;
     private final MeterRegistry meterRegistry;
-    private final Set<QuestionPoolKey> refillInFlight = ConcurrentHashMap.newKeySet();
-    private final Set<QuestionPoolKey> registeredMeters = ConcurrentHashMap.newKeySet();
+    private final SelectionJournal selectionJournal;
+    private final PoolRefillScheduler refillScheduler;
+    private final PoolSnapshotService poolSnapshotService;
+    private final PoolSizer poolSizer;
+    private final Map<QuestionPoolKey, PoolKeyMeters> keyMeters = new ConcurrentHashMap<>();
+    private volatile boolean warmupComplete;
+    private volatile long meteredCatalogVersion;
+    private PoolKeyMeters unknownKeyMeters;
+    private ScheduledExecutorService maintenance;
 
     public QuestionPoolService(CardRepository cardRepository,
+                               CardCatalogService cardCatalogService,
                                SessionCardTrackerService sessionCardTrackerService,
                                QuestionPoolProperties properties,
                                QuestionPoolStore poolStore,
-                               MeterRegistry meterRegistry) {
+                               MeterRegistry meterRegistry,
+                               SelectionJournal selectionJournal,
+                               PoolRefillScheduler refillScheduler,
+                               PoolSnapshotService poolSnapshotService,
+                               PoolSizer poolSizer) {
         this.cardRepository = cardRepository;
+        this.cardCatalogService = cardCatalogService;
         this.sessionCardTrackerService = sessionCardTrackerService;
         this.properties = properties;
         this.poolStore = poolStore;
         this.meterRegistry = meterRegistry;
+        this.selectionJournal = selectionJournal;
+        this.refillScheduler = refillScheduler;
+        this.poolSnapshotService = poolSnapshotService;
+        this.poolSizer = poolSizer;
     }
 
+    /**
+     * Runs pool sizing off the request path: once a second the sizer recomputes every key's watermark and target,
+     * oversized pools are queued for a shrink, and keys that left the catalog give up their demand and meters. Ticks
+     * before warmup has finished are skipped, so maintenance never loads the catalog while the context is starting.
+     */
     @PostConstruct
+    void startMaintenance() {
+        unknownKeyMeters = registerMeters(new QuestionPoolKey("unknown", "unknown", "unknown"), false);
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pool-sizing");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintainSafely, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stopMaintenance() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+    }
+
+    /**
+     * Restores the last pool snapshot, if any, then tops up every key's pool once the application is up, spread over
+     * {@code warmupParallelism} threads. The web server is already accepting connections at this point;
+     * {@link #warmupComplete()} latches when warmup ends, however it ends, and {@link #readiness()} reports when pools
+     * are usable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
     void warmup() {
         if (!properties.enabled()) {
             log.info("Question pool disabled by configuration.");
+            warmupComplete = true;
             return;
         }
 
-        for (QuestionPoolKeyView keyView : cardRepository.findAllPoolKeys()) {
-            QuestionPoolKey key = QuestionPoolKey.from(keyView.getTopic(), keyView.getDifficulty(), keyView.getLanguage());
-            registerMetersIfNeeded(key);
-            refillPool(key);
+        long startedAt = System.nanoTime();
+        int restored = poolSnapshotService.restore();
+        CardCatalog catalog = cardCatalogService.current();
+        List<QuestionPoolKey> keys = catalog.poolKeys();
+        int parallelism = properties.warmupParallelism() > 0 ? properties.warmupParallelism() : DEFAULT_WARMUP_PARALLELISM;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "pool-warmup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Void>> tasks = keys.stream()
+                    .<Callable<Void>>map(key -> () -> {
+                        metersFor(key);
+                        refillPool(key);
+                        return null;
+                    })
+                    .toList();
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+            log.info("Question pool warmup finished keys={} restoredFromSnapshot={} parallelism={} tookMs={}",
+                    keys.size(), restored, parallelism, (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("Question pool warmup interrupted; remaining keys will be refilled on demand.");
+        } catch (ExecutionException ex) {
+            log.warn("Question pool warmup failed for a key; it will be refilled on demand.", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+            // Latched: pools that later drain under load are refilled, not a reason to report the instance unhealthy.
+            warmupComplete = true;
+        }
+    }
+
+    /**
+     * Whether warmup has run. Latches once set; {@code /health} only waits for this.
+     */
+    public boolean warmupComplete() {
+        return warmupComplete;
+    }
+
+    /**
+     * Whether warmup has run and every key of the current catalog holds at least {@code readyFillFraction} of its
+     * current target. Only the readiness health group uses this fill-level check. It only reads pool sizes; after a
+     * catalog reload the maintenance tick queues the refills that bring new and stale keys back up.
+     */
+    public PoolReadiness readiness() {
+        if (!warmupComplete) {
+            return new PoolReadiness(false, 0, 0);
+        }
+        if (!properties.enabled()) {
+            return new PoolReadiness(true, 0, 0);
         }
+
+        CardCatalog catalog = cardCatalogService.current();
+        List<QuestionPoolKey> keys = catalog.poolKeys();
+        int readyKeys = 0;
+        for (QuestionPoolKey key : keys) {
+            int target = Math.min(catalog.byPoolKey(key).length, poolSizer.demandFor(key).target());
+            if (poolStore.poolSize(key) >= properties.readyFillFraction() * target) {
+                readyKeys += 1;
+            }
+        }
+        return new PoolReadiness(readyKeys == keys.size(), keys.size(), readyKeys);
     }
 
     public CardResponse nextCard(String topic, String difficulty, String language, String sessionId) {
         Set<String> servedIds = sessionCardTrackerService.servedIdsForSession(sessionId);
         QuestionPoolKey key = QuestionPoolKey.from(topic, difficulty, language);
-        registerMetersIfNeeded(key);
-
-        if (!properties.enabled() || isBlank(topic) || isBlank(difficulty)) {
-            return fallbackWithReservation(topic, difficulty, language, sessionId, servedIds, key);
+        CardCatalog catalog = cardCatalogService.current();
+        if (!admitted(catalog, key)) {
+            return fallbackWithReservation(key, sessionId, servedIds, unknownKeyMeters);
         }
+        PoolKeyMeters meters = metersFor(key);
 
-        ConcurrentLinkedQueue<CardResponse> queue = poolStore.queueForKey(key);
-        CardResponse fromPool = pullNonDuplicateAndReserve(queue, servedIds, sessionId, key);
-
-        if (queue.size() < properties.lowWatermarkPerKey()) {
-            asyncRefill(key);
+        if (!properties.enabled()) {
+            return fallbackWithReservation(key, sessionId, servedIds, meters);
         }
 
+        CardResponse fromPool = key.isWildcard()
+                ? readFromWildcard(catalog, key, sessionId)
+                : readFromPool(catalog, key, sessionId, meters);
+
         if (fromPool != null) {
-            poolStore.recordCacheHit(key);
-            meterRegistry.counter("smartiq.pool.cache.hits", metricTags(key)).increment();
+            poolStore.countersForKey(key).recordCacheHit();
+            meters.cacheHits().increment();
             return fromPool;
         }
 
-        poolStore.recordCacheMiss(key);
-        meterRegistry.counter("smartiq.pool.cache.misses", metricTags(key)).increment();
-        log.warn("Question pool empty for key topic={} difficulty={} language={}; using DB fallback.",
-                key.topic(), key.difficulty(), key.language());
-        return fallbackWithReservation(topic, difficulty, language, sessionId, servedIds, key);
+        poolStore.countersForKey(key).recordCacheMiss();
+        meters.cacheMisses().increment();
+        selectionJournal.recordPoolEmpty(key);
+        return fallbackWithReservation(key, sessionId, servedIds, meters);
     }
 
     public List<PoolKeyStats> getPoolStats() {
         return poolStore.snapshot();
     }
 
-    private CardResponse fallbackWithReservation(String topic,
-                                                 String difficulty,
-                                                 String language,
+    /**
+     * Serves a miss from the catalog's per-key index minus the session's served set; the database is only asked for
+     * a bounded random batch when the catalog has nothing left for the filters.
+     */
+    private CardResponse fallbackWithReservation(QuestionPoolKey key,
                                                  String sessionId,
                                                  Set<String> servedIds,
-                                                 QuestionPoolKey key) {
-        poolStore.recordFallbackDbHit(key);
-        meterRegistry.counter("smartiq.pool.fallback.db.hits", metricTags(key)).increment();
-
-        for (int i = 0; i < 5; i += 1) {
-            CardResponse fallback = fallbackRandom(topic, difficulty, language, servedIds);
+                                                 PoolKeyMeters meters) {
+        CardCatalog catalog = cardCatalogService.current();
+        int[] candidates = catalog.matching(key.topic(), key.difficulty(), key.language());
+        for (int i = 0; i < FALLBACK_RESERVATION_ATTEMPTS; i += 1) {
+            CardResponse fallback = catalog.randomCard(candidates, servedIds);
+            if (fallback == null) {
+                break;
+            }
             if (sessionCardTrackerService.tryMarkServed(sessionId, fallback.id())) {
+                meters.fallbackCatalogHits().increment();
                 return fallback;
             }
             servedIds = sessionCardTrackerService.servedIdsForSession(sessionId);
         }
 
+        if (meters != unknownKeyMeters) {
+            poolStore.countersForKey(key).recordFallbackDbHit();
+        }
+        meters.fallbackDbHits().increment();
+        List<Card> batch = cardRepository.findRandomBatchByFilters(
+                key.topic(),
+                key.difficulty(),
+                key.language(),
+                FALLBACK_DB_BATCH_SIZE
+        );
+        if (batch.isEmpty()) {
+            throw new NoSuchElementException("No cards available for requested filters");
+        }
+        for (Card card : batch) {
+            if (!servedIds.contains(card.getId()) && sessionCardTrackerService.tryMarkServed(sessionId, card.getId())) {
+                return CardResponse.fromEntity(card);
+            }
+        }
+
         throw new NoSuchElementException("No non-duplicate cards available for session");
     }
 
-    private CardResponse fallbackRandom(String topic, String difficulty, String language, Set<String> servedIds) {
-        Optional<Card> maybeCard = servedIds.isEmpty()
-                ? cardRepository.findRandomByFilters(
-                normalizeOptional(topic),
-                normalizeOptional(difficulty),
-                normalizeOptional(language)
-        )
-                : cardRepository.findRandomByFiltersExcludingIds(
-                normalizeOptional(topic),
-                normalizeOptional(difficulty),
-                normalizeOptional(language),
-                servedIds
-        );
-
-        Card card = maybeCard.orElseThrow(() -> new NoSuchElementException("No cards available for requested filters"));
-        return CardResponse.fromEntity(card);
+    private CardResponse readFromPool(CardCatalog catalog, QuestionPoolKey key, String sessionId, PoolKeyMeters meters) {
+        meters.demand().recordRequest();
+        CardPool pool = poolStore.poolForKey(key);
+        CardResponse card = readFromEpoch(catalog, pool, sessionId, key, meters.demand());
+        refillIfLow(catalog, key, pool, meters.demand());
+        return card;
     }
 
-    private CardResponse pullNonDuplicateAndReserve(ConcurrentLinkedQueue<CardResponse> queue,
-                                                    Set<String> servedIds,
-                                                    String sessionId,
-                                                    QuestionPoolKey key) {
-        if (queue.isEmpty()) {
+    /**
+     * Serves a wildcard key from the concrete pools it covers. The first pool tried is picked in proportion to its
+     * bank size, so mixed requests see every covered card with equal odds; the read and the session cursor belong to
+     * the concrete key that serves the card. Demand is recorded, and a refill considered, for one concrete key per
+     * request: the one that served, or on a miss the one the request was drawn to. Pools that were only probed are
+     * left alone, so a wildcard request never counts as demand on several keys.
+     */
+    private CardResponse readFromWildcard(CardCatalog catalog, QuestionPoolKey key, String sessionId) {
+        WildcardPoolView view = catalog.wildcardView(key);
+        if (view.isEmpty()) {
             return null;
         }
 
-        List<CardResponse> skipped = new ArrayList<>();
-        int attempts = queue.size();
-
-        for (int i = 0; i < attempts; i += 1) {
-            CardResponse candidate = queue.poll();
-            if (candidate == null) {
-                break;
+        int start = view.indexAt(ThreadLocalRandom.current().nextLong(view.bankSize()));
+        int probes = Math.min(view.size(), MAX_WILDCARD_PROBES);
+        for (int i = 0; i < probes; i += 1) {
+            QuestionPoolKey concrete = view.key((start + i) % view.size());
+            PoolDemand demand = metersFor(concrete).demand();
+            CardPool pool = poolStore.poolForKey(concrete);
+            CardResponse card = readFromEpoch(catalog, pool, sessionId, concrete, demand);
+            if (card != null) {
+                demand.recordRequest();
+                refillIfLow(catalog, concrete, pool, demand);
+                return card;
             }
+        }
 
-            if (servedIds.contains(candidate.id())) {
-                skipped.add(candidate);
-                continue;
-            }
+        QuestionPoolKey drawn = view.key(start);
+        PoolDemand demand = metersFor(drawn).demand();
+        demand.recordRequest();
+        refillIfLow(catalog, drawn, poolStore.poolForKey(drawn), demand);
+        return null;
+    }
 
+    /**
+     * Reads the session's next card from the key's epoch. A reader that runs off the end asks for a rotation once the
+     * epoch has reached the key's current target, which under adaptive sizing is usually far below pool capacity.
+     */
+    private CardResponse readFromEpoch(CardCatalog catalog,
+                                       CardPool pool,
+                                       String sessionId,
+                                       QuestionPoolKey key,
+                                       PoolDemand demand) {
+        PoolEpoch epoch = pool.epoch();
+        if (epoch.isEmpty() || !epoch.readableWith(catalog)) {
+            return null;
+        }
+
+        Map<QuestionPoolKey, PoolCursor> cursors = sessionCardTrackerService.cursorsForSession(sessionId);
+        if (cursors == null) {
+            return pool.nextShared(catalog, demand.target());
+        }
+
+        PoolCursor cursor = cursors.get(key);
+        int position = cursor != null && cursor.epoch() == epoch.number() ? cursor.position() : 0;
+        while (position < epoch.size()) {
+            CardResponse candidate = epoch.card(catalog, position);
+            position += 1;
             if (sessionCardTrackerService.tryMarkServed(sessionId, candidate.id())) {
-                skipped.forEach(queue::add);
+                cursors.put(key, new PoolCursor(epoch.number(), position));
                 return candidate;
             }
-
-            skipped.add(candidate);
-            poolStore.recordCacheMiss(key);
-            servedIds = sessionCardTrackerService.servedIdsForSession(sessionId);
         }
 
-        skipped.forEach(queue::add);
+        cursors.put(key, new PoolCursor(epoch.number(), position));
+        pool.requestRotation(demand.target());
         return null;
     }
 
-    private void asyncRefill(QuestionPoolKey key) {
-        if (!refillInFlight.add(key)) {
-            return;
+    private void refillIfLow(CardCatalog catalog, QuestionPoolKey key, CardPool pool, PoolDemand demand) {
+        if (pool.size() < demand.watermark() || pool.rotationRequested() || !pool.epoch().readableWith(catalog)) {
+            asyncRefill(key, pool, demand);
         }
+    }
+
+    private void asyncRefill(QuestionPoolKey key, CardPool pool, PoolDemand demand) {
+        double fillFraction = pool.rotationRequested() ? 0.0 : (double) pool.size() / Math.max(1, demand.target());
+        long requestedAt = System.nanoTime();
+        refillScheduler.submit(key, fillFraction, () -> {
+            refillPool(key);
+            demand.recordRefillLatency(System.nanoTime() - requestedAt);
+        });
+    }
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                refillPool(key);
-            } finally {
-                refillInFlight.remove(key);
+    /**
+     * Queues a rotation down to target for pools that demand no longer justifies, lowest priority first.
+     */
+    private void shrinkOversizedPools(CardCatalog catalog) {
+        poolStore.forEachPool((key, pool) -> {
+            if (admitted(catalog, key) && poolSizer.oversized(poolSizer.demandFor(key), pool.size())) {
+                refillScheduler.submit(key, 1.0, () -> refillPool(key));
             }
         });
     }
 
+    /**
+     * Tops the key's epoch up to its current target, or publishes a new one when a rotation was requested, demand
+     * has fallen well below what the pool holds, or the epoch belongs to a catalog that has since been reloaded.
+     * Only the missing number of cards is sampled from the in-memory catalog, skipping ids already in the epoch. If
+     * the store swapped the key's pool while the refill ran (seeded it, or warmed a seed back up), the refill is
+     * repeated once on the pool that is current now rather than left in an orphaned instance.
+     */
     private void refillPool(QuestionPoolKey key) {
-        ConcurrentLinkedQueue<CardResponse> queue = poolStore.queueForKey(key);
-        long bankSize = cardRepository.countByPoolKey(key.topic(), key.difficulty(), key.language());
+        CardPool pool = poolStore.poolForKey(key);
+        refillInto(key, pool);
+        CardPool current = poolStore.poolForKey(key);
+        if (current != pool) {
+            refillInto(key, current);
+        }
+    }
+
+    private void refillInto(QuestionPoolKey key, CardPool pool) {
+        CardCatalog catalog = cardCatalogService.current();
+        int[] ordinals = catalog.byPoolKey(key);
+        int bankSize = ordinals.length;
 
         if (bankSize < properties.minimumPerKey()) {
             log.warn("bank_low topic={} difficulty={} language={} available={} required={}",
                     key.topic(), key.difficulty(), key.language(), bankSize, properties.minimumPerKey());
         }
 
-        int refillTarget = (int) Math.min(bankSize, properties.refillTargetPerKey());
-        if (refillTarget <= queue.size()) {
+        PoolDemand demand = poolSizer.demandFor(key);
+        int refillTarget = Math.min(bankSize, demand.target());
+        PoolEpoch epoch = pool.epoch();
+        boolean rotate = pool.rotationRequested()
+                || poolSizer.oversized(demand, pool.size())
+                || !epoch.readableWith(catalog);
+        int deficit = rotate ? refillTarget : refillTarget - pool.size();
+        if (deficit <= 0) {
             return;
         }
 
-        List<Card> cards = new ArrayList<>(cardRepository.findAllByPoolKey(key.topic(), key.difficulty(), key.language()));
-        if (cards.isEmpty()) {
+        int[] batch = catalog.sample(ordinals, deficit, rotate ? ordinal -> false : ordinal -> epoch.contains(catalog, ordinal));
+        if (batch.length == 0) {
             return;
         }
-
-        Collections.shuffle(cards);
-        int added = 0;
-        for (Card card : cards) {
-            if (queue.size() >= refillTarget) {
-                break;
-            }
-            queue.add(CardResponse.fromEntity(card));
-            added += 1;
-        }
+        int added = rotate ? pool.rotate(catalog, batch) : pool.fill(catalog, batch);
 
         if (added > 0) {
-            poolStore.recordRefill(key, added);
-            meterRegistry.counter("smartiq.pool.refills", metricTags(key)).increment();
+            PoolKeyMeters meters = metersFor(key);
+            poolStore.countersForKey(key).recordRefill();
+            meters.refills().increment();
         }
     }
 
-    private void registerMetersIfNeeded(QuestionPoolKey key) {
-        if (!registeredMeters.add(key)) {
+    private void maintainSafely() {
+        if (!warmupComplete) {
             return;
         }
+        try {
+            CardCatalog catalog = cardCatalogService.current();
+            if (meteredCatalogVersion != catalog.version()) {
+                retireKeysMissingFrom(catalog);
+                refillStalePools(catalog);
+            }
+            if (poolSizer.recomputeIfDue()) {
+                shrinkOversizedPools(catalog);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Question pool maintenance failed; retrying on the next tick.", ex);
+        }
+    }
 
-        Tags tags = Tags.of(
-                "topic", safeTag(key.topic()),
-                "difficulty", safeTag(key.difficulty()),
-                "language", safeTag(key.language())
-        );
+    /**
+     * Only keys backed by the catalog get per-key demand and meters, so request-supplied filters cannot grow either
+     * without bound; anything else is served by the fallback under the shared {@code unknown} meters.
+     */
+    private static boolean admitted(CardCatalog catalog, QuestionPoolKey key) {
+        return key.isWildcard() ? !catalog.wildcardView(key).isEmpty() : catalog.byPoolKey(key).length > 0;
+    }
 
-        meterRegistry.gauge("smartiq.pool.size", tags, poolStore.queueForKey(key), ConcurrentLinkedQueue::size);
-        meterRegistry.gauge("smartiq.pool.cache.hit.rate", tags, this,
-                ignored -> poolStore.snapshot().stream()
-                        .filter(stat -> key.topic().equals(stat.topic())
-                                && key.difficulty().equals(stat.difficulty())
-                                && key.language().equals(stat.language()))
-                        .findFirst()
-                        .map(PoolKeyStats::cacheHitRate)
-                        .orElse(0.0));
+    /**
+     * Queues a refill, ahead of everything else, for every pool whose epoch the reloaded catalog can no longer read
+     * and for every key the reload added, so new keys are warmed rather than reported unready until requested.
+     */
+    private void refillStalePools(CardCatalog catalog) {
+        poolStore.forEachPool((key, pool) -> {
+            if (admitted(catalog, key) && !pool.epoch().readableWith(catalog)) {
+                refillScheduler.submit(key, 0.0, () -> refillPool(key));
+            }
+        });
+        for (QuestionPoolKey key : catalog.poolKeys()) {
+            if (poolStore.poolSize(key) == 0) {
+                metersFor(key);
+                refillScheduler.submit(key, 0.0, () -> refillPool(key));
+            }
+        }
     }
 
-    private Iterable<Tag> metricTags(QuestionPoolKey key) {
-        return Tags.of(
+    private void retireKeysMissingFrom(CardCatalog catalog) {
+        keyMeters.forEach((key, meters) -> {
+            if (!admitted(catalog, key) && keyMeters.remove(key, meters)) {
+                meters.registered().forEach(meterRegistry::remove);
+                poolSizer.forget(key);
+            }
+        });
+        meteredCatalogVersion = catalog.version();
+    }
+
+    private PoolKeyMeters metersFor(QuestionPoolKey key) {
+        PoolKeyMeters meters = keyMeters.get(key);
+        return meters != null ? meters : keyMeters.computeIfAbsent(key, k -> registerMeters(k, !k.isWildcard()));
+    }
+
+    /**
+     * Resolves every meter for the key once. Pool and stats gauges look the key up in the store on each scrape, an O(1)
+     * read, because the store may seed, re-warm or drop a key's pool over time. Keys without a pool of their own
+     * (wildcard keys and the shared {@code unknown} key) have no demand and only get the request counters.
+     */
+    private PoolKeyMeters registerMeters(QuestionPoolKey key, boolean pooled) {
+        Tags tags = Tags.of(
                 "topic", safeTag(key.topic()),
                 "difficulty", safeTag(key.difficulty()),
                 "language", safeTag(key.language())
         );
+
+        List<Meter> registered = new ArrayList<>();
+        PoolDemand demand = null;
+        if (pooled) {
+            demand = poolSizer.demandFor(key);
+            registered.add(Gauge.builder("smartiq.pool.size", key, poolStore::poolSize).tags(tags).register(meterRegistry));
+            registered.add(Gauge.builder("smartiq.pool.cache.hit.rate", key, k -> poolStore.countersForKey(k).cacheHitRate())
+                    .tags(tags).register(meterRegistry));
+            registered.add(Gauge.builder("smartiq.pool.demand.rate", demand, PoolDemand::rate).tags(tags).register(meterRegistry));
+            registered.add(Gauge.builder("smartiq.pool.watermark", demand, PoolDemand::watermark).tags(tags).register(meterRegistry));
+            registered.add(Gauge.builder("smartiq.pool.target", demand, PoolDemand::target).tags(tags).register(meterRegistry));
+        }
+        PoolKeyMeters meters = new PoolKeyMeters(
+                demand,
+                meterRegistry.counter("smartiq.pool.cache.hits", tags),
+                meterRegistry.counter("smartiq.pool.cache.misses", tags),
+                meterRegistry.counter("smartiq.pool.fallback.catalog.hits", tags),
+                meterRegistry.counter("smartiq.pool.fallback.db.hits", tags),
+                meterRegistry.counter("smartiq.pool.refills", tags),
+                registered
+        );
+        registered.addAll(List.of(meters.cacheHits(), meters.cacheMisses(), meters.fallbackCatalogHits(),
+                meters.fallbackDbHits(), meters.refills()));
+        return meters;
     }
 
     private static String safeTag(String value) {
-        return value == null ? "unknown" : value;
+        return value == null ? QuestionPoolKey.ANY : value;
     }
 
-    private static boolean isBlank(String value) {
-        return value == null || value.isBlank();
+    public record PoolReadiness(boolean ready, int keys, int readyKeys) {
     }
 
-    private static String normalizeOptional(String value) {
-        return isBlank(value) ? null : value.trim().toLowerCase();
+    private record PoolKeyMeters(PoolDemand demand,
+                                 Counter cacheHits,
+                                 Counter cacheMisses,
+                                 Counter fallbackCatalogHits,
+                                 Counter fallbackDbHits,
+                                 Counter refills,
+                                 List<Meter> registered) {
     }
 }
@@ -1,18 +1,26 @@
 package com.smartiq.backend.card;
 
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
 
 public interface QuestionPoolStore {
-    ConcurrentLinkedQueue<CardResponse> queueForKey(QuestionPoolKey key);
+    CardPool poolForKey(QuestionPoolKey key);
 
-    void recordCacheHit(QuestionPoolKey key);
+    /**
+     * Statistics handle for the key; the same instance is returned for as long as the store tracks the key.
+     */
+    PoolKeyCounters countersForKey(QuestionPoolKey key);
 
-    void recordCacheMiss(QuestionPoolKey key);
-
-    void recordRefill(QuestionPoolKey key, int added);
-
-    void recordFallbackDbHit(QuestionPoolKey key);
+    /**
+     * Current size of the key's pool, or 0 when the store holds none; unlike {@link #poolForKey} it never creates or
+     * touches a pool.
+     */
+    int poolSize(QuestionPoolKey key);
 
     List<PoolKeyStats> snapshot();
+
+    /**
+     * Visits every pool the store currently holds.
+     */
+    void forEachPool(BiConsumer<QuestionPoolKey, CardPool> visitor);
 }
\ No newline at end of file
@@ -0,0 +1,293 @@
+package com.smartiq.backend.card;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link CardPool} whose epoch lives in Redis, so every backend instance serves and refills the same pool. Each
+ * instance mirrors the epoch locally and re-syncs it at most once per sync interval, which keeps session reads in
+ * memory. Shared reads, appends and rotations run as server-side scripts and are atomic across instances; a write
+ * and the sync that follows it go out in one pipeline.
+ */
+final class RedisCardPool implements CardPool {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCardPool.class);
+
+    // KEYS for every script: epoch number, card list, card id set, shared read counter, rotation flag.
+
+    static final RedisScript SHARED_READ = RedisScript.of("""
+            local size = redis.call('LLEN', KEYS[2])
+            if size == 0 then
+              return false
+            end
+            local position = (redis.call('INCR', KEYS[4]) - 1) % size
+            if position == size - 1 and size >= tonumber(ARGV[1]) then
+              redis.call('SET', KEYS[5], '1')
+            end
+            return redis.call('LINDEX', KEYS[2], position)
+            """);
+
+    static final RedisScript APPEND = RedisScript.of("""
+            local capacity = tonumber(ARGV[1])
+            local size = redis.call('LLEN', KEYS[2])
+            local added = 0
+            for i = 2, #ARGV do
+              if size >= capacity then
+                break
+              end
+              if redis.call('SADD', KEYS[3], ARGV[i]) == 1 then
+                redis.call('RPUSH', KEYS[2], ARGV[i])
+                size = size + 1
+                added = added + 1
+              end
+            end
+            return added
+            """);
+
+    static final RedisScript ROTATE = RedisScript.of("""
+            local epoch = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if epoch ~= tonumber(ARGV[1]) then
+              return 0
+            end
+            redis.call('DEL', KEYS[2], KEYS[3], KEYS[5])
+            redis.call('SET', KEYS[1], tostring(epoch + 1))
+            redis.call('SET', KEYS[4], '0')
+            local capacity = tonumber(ARGV[2])
+            local size = 0
+            for i = 3, #ARGV do
+              if size >= capacity then
+                break
+              end
+              if redis.call('SADD', KEYS[3], ARGV[i]) == 1 then
+                redis.call('RPUSH', KEYS[2], ARGV[i])
+                size = size + 1
+              end
+            end
+            return size
+            """);
+
+    /**
+     * Replies {@code [epoch, rotationRequested, offset, ids...]}: the ids past {@code ARGV[2]} when the caller
+     * already mirrors epoch {@code ARGV[1]}, otherwise the whole list.
+     */
+    static final RedisScript SYNC = RedisScript.of("""
+            local epoch = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local offset = 0
+            if epoch == tonumber(ARGV[1]) then
+              offset = tonumber(ARGV[2])
+            end
+            local reply = redis.call('LRANGE', KEYS[2], offset, -1)
+            table.insert(reply, 1, offset)
+            table.insert(reply, 1, redis.call('EXISTS', KEYS[5]))
+            table.insert(reply, 1, epoch)
+            return reply
+            """);
+
+    private final UnifiedJedis jedis;
+    private final List<String> keys;
+    private final int capacity;
+    private final CardCatalogService cardCatalogService;
+    private final long syncIntervalNanos;
+    private final AtomicBoolean syncing = new AtomicBoolean();
+    private volatile Mirror mirror = new Mirror(0, PoolEpoch.EMPTY, 0, false);
+    private volatile long syncedAt;
+
+    RedisCardPool(UnifiedJedis jedis,
+                  String keyPrefix,
+                  QuestionPoolKey key,
+                  int capacity,
+                  CardCatalogService cardCatalogService,
+                  Duration syncInterval) {
+        this.jedis = jedis;
+        this.capacity = Math.max(1, capacity);
+        this.cardCatalogService = cardCatalogService;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.syncedAt = System.nanoTime() - syncIntervalNanos;
+
+        String base = keyPrefix + ":pool:{" + part(key.topic()) + "|" + part(key.difficulty()) + "|" + part(key.language()) + "}:";
+        this.keys = List.of(base + "epoch", base + "cards", base + "ids", base + "reads", base + "rotate");
+    }
+
+    @Override
+    public PoolEpoch epoch() {
+        syncIfStale();
+        return mirror.epoch();
+    }
+
+    @Override
+    public int size() {
+        return epoch().size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int fill(CardCatalog catalog, int[] ordinals) {
+        if (ordinals.length == 0) {
+            return 0;
+        }
+        List<String> args = new ArrayList<>(ordinals.length + 1);
+        args.add(Integer.toString(capacity));
+        addIds(args, catalog, ordinals);
+        return writeAndSync(APPEND, args, catalog);
+    }
+
+    @Override
+    public int rotate(CardCatalog catalog, int[] ordinals) {
+        List<String> args = new ArrayList<>(ordinals.length + 2);
+        args.add(Long.toString(mirror.epoch().number()));
+        args.add(Integer.toString(capacity));
+        addIds(args, catalog, ordinals);
+        return writeAndSync(ROTATE, args, catalog);
+    }
+
+    @Override
+    public CardResponse nextShared(CardCatalog catalog, int target) {
+        try {
+            Object id = SHARED_READ.eval(jedis, keys, List.of(Integer.toString(rotationThreshold(target))));
+            return id == null ? null : cardFor(catalog, (String) id);
+        } catch (JedisException ex) {
+            log.debug("Shared pool read failed key={}", keys.get(1), ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void requestRotation(int target) {
+        synchronized (this) {
+            Mirror current = mirror;
+            if (current.rotationRequested() || current.epoch().size() < rotationThreshold(target)) {
+                return;
+            }
+            mirror = new Mirror(current.catalogVersion(), current.epoch(), current.remoteLength(), true);
+        }
+        try {
+            jedis.set(keys.get(4), "1");
+        } catch (JedisException ex) {
+            log.debug("Rotation request failed key={}", keys.get(1), ex);
+        }
+    }
+
+    @Override
+    public boolean rotationRequested() {
+        syncIfStale();
+        return mirror.rotationRequested();
+    }
+
+    private int rotationThreshold(int target) {
+        return Math.min(capacity, target);
+    }
+
+    /**
+     * Runs {@code script} and a sync in one round trip, returning the script's integer reply. The sync resolves ids
+     * against {@code catalog}, the one the written ids came from.
+     */
+    private int writeAndSync(RedisScript script, List<String> args, CardCatalog catalog) {
+        Mirror known = mirror;
+        for (int attempt = 0; ; attempt += 1) {
+            try (AbstractPipeline pipeline = jedis.pipelined()) {
+                Response<Object> written = pipeline.evalsha(script.sha(), keys, args);
+                Response<Object> synced = pipeline.evalsha(SYNC.sha(), keys, syncArgs(known, catalog));
+                pipeline.sync();
+                int result = ((Long) written.get()).intValue();
+                apply(known, catalog, synced.get());
+                return result;
+            } catch (JedisNoScriptException ex) {
+                if (attempt > 0) {
+                    throw ex;
+                }
+                script.load(jedis);
+                SYNC.load(jedis);
+            }
+        }
+    }
+
+    private void syncIfStale() {
+        if (System.nanoTime() - syncedAt < syncIntervalNanos || !syncing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Mirror known = mirror;
+            CardCatalog catalog = cardCatalogService.current();
+            apply(known, catalog, SYNC.eval(jedis, keys, syncArgs(known, catalog)));
+        } catch (JedisException ex) {
+            log.warn("Redis pool sync failed key={}: {}", keys.get(1), ex.getMessage());
+        } finally {
+            syncedAt = System.nanoTime();
+            syncing.set(false);
+        }
+    }
+
+    /**
+     * Folds a sync reply into the mirror. An incremental reply only applies to the mirror it was requested against;
+     * if another sync got there first the next one catches up. A catalog change always resyncs the whole list.
+     */
+    private synchronized void apply(Mirror known, CardCatalog catalog, Object reply) {
+        List<?> values = (List<?>) reply;
+        long number = (Long) values.get(0);
+        boolean rotationRequested = (Long) values.get(1) == 1L;
+        int offset = ((Long) values.get(2)).intValue();
+        List<?> ids = values.subList(3, values.size());
+
+        Mirror current = mirror;
+        if (number < current.epoch().number() || (offset > 0 && current != known)) {
+            return;
+        }
+
+        int[] ordinals = new int[ids.size()];
+        int resolved = 0;
+        for (Object id : ids) {
+            int ordinal = catalog.ordinalOf((String) id);
+            if (ordinal >= 0) {
+                ordinals[resolved++] = ordinal;
+            }
+        }
+        ordinals = Arrays.copyOf(ordinals, resolved);
+
+        PoolEpoch epoch = offset == 0
+                ? PoolEpoch.of(number, catalog, ordinals)
+                : current.epoch().append(catalog, ordinals, current.epoch().size() + ordinals.length);
+        mirror = new Mirror(catalog.version(), epoch, offset + ids.size(), rotationRequested);
+    }
+
+    private static CardResponse cardFor(CardCatalog catalog, String id) {
+        int ordinal = catalog.ordinalOf(id);
+        return ordinal < 0 ? null : catalog.card(ordinal);
+    }
+
+    private static List<String> syncArgs(Mirror known, CardCatalog catalog) {
+        int length = known.catalogVersion() == catalog.version() ? known.remoteLength() : 0;
+        return List.of(Long.toString(known.epoch().number()), Integer.toString(length));
+    }
+
+    private static void addIds(List<String> args, CardCatalog catalog, int[] ordinals) {
+        for (int ordinal : ordinals) {
+            args.add(catalog.card(ordinal).id());
+        }
+    }
+
+    private static String part(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Local copy of the shared epoch; {@code remoteLength} counts ids the catalog could not resolve, so
+     * incremental syncs stay aligned with the Redis list.
+     */
+    private record Mirror(long catalogVersion, PoolEpoch epoch, int remoteLength, boolean rotationRequested) {
+    }
+}
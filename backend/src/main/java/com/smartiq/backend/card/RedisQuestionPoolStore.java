@@ -1,39 +1,89 @@
 package com.smartiq.backend.card;
 
+import com.smartiq.backend.config.QuestionPoolProperties;
+import com.smartiq.backend.config.RedisStoreProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.UnifiedJedis;
 
-import java.util.Collections;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
+/**
+ * Pool store shared by every backend instance through Redis. Pool contents are shared; the per-key counters stay
+ * local to each instance, like the rest of its metrics, and are aggregated by the metrics backend.
+ */
 @Component
 @Profile("redis-store")
 public class RedisQuestionPoolStore implements QuestionPoolStore {
 
-    @Override
-    public ConcurrentLinkedQueue<CardResponse> queueForKey(QuestionPoolKey key) {
-        throw new UnsupportedOperationException("RedisQuestionPoolStore is a placeholder for future implementation.");
+    private final UnifiedJedis jedis;
+    private final String keyPrefix;
+    private final Duration syncInterval;
+    private final int poolCapacity;
+    private final CardCatalogService cardCatalogService;
+    private final Map<QuestionPoolKey, CardPool> pools = new ConcurrentHashMap<>();
+    private final Map<QuestionPoolKey, PoolKeyCounters> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RedisQuestionPoolStore(QuestionPoolProperties poolProperties,
+                                  RedisStoreProperties properties,
+                                  CardCatalogService cardCatalogService) {
+        this(new JedisPooled(URI.create(properties.url())), poolProperties, properties, cardCatalogService);
     }
 
-    @Override
-    public void recordCacheHit(QuestionPoolKey key) {
+    RedisQuestionPoolStore(UnifiedJedis jedis,
+                           QuestionPoolProperties poolProperties,
+                           RedisStoreProperties properties,
+                           CardCatalogService cardCatalogService) {
+        this.jedis = jedis;
+        this.keyPrefix = properties.keyPrefix();
+        this.syncInterval = Duration.ofMillis(Math.max(0, properties.syncIntervalMillis()));
+        this.poolCapacity = poolProperties.refillTargetPerKey();
+        this.cardCatalogService = cardCatalogService;
+    }
+
+    @PreDestroy
+    void close() {
+        jedis.close();
     }
 
     @Override
-    public void recordCacheMiss(QuestionPoolKey key) {
+    public CardPool poolForKey(QuestionPoolKey key) {
+        countersForKey(key);
+        return pools.computeIfAbsent(key,
+                ignored -> new RedisCardPool(jedis, keyPrefix, key, poolCapacity, cardCatalogService, syncInterval));
     }
 
     @Override
-    public void recordRefill(QuestionPoolKey key, int added) {
+    public PoolKeyCounters countersForKey(QuestionPoolKey key) {
+        return counters.computeIfAbsent(key, ignored -> new PoolKeyCounters());
     }
 
     @Override
-    public void recordFallbackDbHit(QuestionPoolKey key) {
+    public int poolSize(QuestionPoolKey key) {
+        CardPool pool = pools.get(key);
+        return pool == null ? 0 : pool.size();
     }
 
     @Override
     public List<PoolKeyStats> snapshot() {
-        return Collections.emptyList();
+        List<PoolKeyStats> stats = new ArrayList<>();
+        counters.forEach((key, value) -> stats.add(PoolKeyStats.of(key, poolSize(key), value)));
+        stats.sort(PoolKeyStats.BY_KEY);
+        return stats;
+    }
+
+    @Override
+    public void forEachPool(BiConsumer<QuestionPoolKey, CardPool> visitor) {
+        pools.forEach(visitor);
     }
-}
\ No newline at end of file
+}
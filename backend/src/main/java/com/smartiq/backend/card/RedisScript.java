@@ -0,0 +1,39 @@
+package com.smartiq.backend.card;
+
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Lua script invoked by SHA1. The digest is computed locally, so the script only travels to the server the first
+ * time a node reports it missing (after a restart or {@code SCRIPT FLUSH}).
+ */
+record RedisScript(String source, String sha) {
+
+    static RedisScript of(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8));
+            return new RedisScript(source, HexFormat.of().formatHex(digest));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-1 not available", ex);
+        }
+    }
+
+    Object eval(UnifiedJedis jedis, List<String> keys, List<String> args) {
+        try {
+            return jedis.evalsha(sha, keys, args);
+        } catch (JedisNoScriptException ex) {
+            load(jedis);
+            return jedis.evalsha(sha, keys, args);
+        }
+    }
+
+    void load(UnifiedJedis jedis) {
+        jedis.scriptLoad(source);
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartiq.backend.card;
+
+/**
+ * Entire per-game state of the seeded deck mode: the permutation seed, the next position to serve and the catalog
+ * version the positions refer to.
+ */
+record SeededDeckCursor(long seed, long position, long catalogVersion) {
+}
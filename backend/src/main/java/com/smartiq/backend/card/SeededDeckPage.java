@@ -0,0 +1,6 @@
+package com.smartiq.backend.card;
+
+import java.util.List;
+
+public record SeededDeckPage(List<byte[]> cards, long seed, long nextPosition) {
+}
@@ -0,0 +1,63 @@
+package com.smartiq.backend.card;
+
+/**
+ * Keyed bijection over {@code [0, size)} built from a small Feistel network with cycle walking, so the card at any
+ * position of a game's shuffled deck can be computed in O(1) from the seed alone. Each pass over the pool
+ * ({@code position / size}) uses a fresh key, so consecutive cycles are shuffled differently.
+ */
+final class SeededDeckPermutation {
+
+    private static final int ROUNDS = 4;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private SeededDeckPermutation() {
+    }
+
+    static int indexAt(int size, long seed, long position) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("position must not be negative");
+        }
+
+        long key = mix(seed + (position / size) * GOLDEN_GAMMA);
+        int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(size - 1));
+        int halfBits = (bits + 1) >>> 1;
+        int halfMask = (1 << halfBits) - 1;
+
+        int value = (int) (position % size);
+        do {
+            value = encrypt(value, key, halfBits, halfMask);
+        } while (value >= size);
+        return value;
+    }
+
+    /**
+     * Stable 64-bit seed for a game id, identical on every node.
+     */
+    static long seedFor(String gameId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < gameId.length(); i++) {
+            hash = (hash ^ gameId.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static int encrypt(int value, long key, int halfBits, int halfMask) {
+        int left = value >>> halfBits;
+        int right = value & halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = left ^ (int) (mix(key + round * GOLDEN_GAMMA + right) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,290 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.SelectionJournalProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated ring of card selection events. Request threads claim a slot with one atomic increment and fill it in
+ * place; a single background consumer turns the events into metrics, a periodic summary line and, when sampling is
+ * enabled, per-event log lines. When producers lap the consumer the oldest events are dropped and counted rather
+ * than blocking the request path.
+ */
+@Component
+public class SelectionJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(SelectionJournal.class);
+
+    private static final long DRAIN_INTERVAL_MILLIS = 200;
+    private static final byte DECK_SELECTION = 1;
+    private static final byte POOL_EMPTY = 2;
+
+    private final SelectionJournalProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final Summary summary = new Summary();
+    private long consumed;
+    private long lastSummaryAt = System.nanoTime();
+    private ScheduledExecutorService consumer;
+
+    public SelectionJournal(SelectionJournalProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        int capacity = Integer.highestOneBit(Math.max(2, properties.capacity()) * 2 - 1);
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+    }
+
+    @PostConstruct
+    void start() {
+        consumer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "selection-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        consumer.scheduleWithFixedDelay(this::drainSafely, DRAIN_INTERVAL_MILLIS, DRAIN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (consumer != null) {
+            consumer.shutdownNow();
+        }
+        drain();
+    }
+
+    void recordDeckSelection(String gameId,
+                             CardResponse card,
+                             String category,
+                             String language,
+                             int poolSize,
+                             List<String> relaxed,
+                             int attempts,
+                             long latencyNanos) {
+        long sequence = claimed.getAndIncrement();
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.published = -1;
+        VarHandle.storeStoreFence();
+        slot.kind = DECK_SELECTION;
+        slot.gameId = gameId;
+        slot.cardId = card.id();
+        slot.category = category;
+        slot.topic = card.topic();
+        slot.difficulty = null;
+        slot.language = language;
+        slot.poolSize = poolSize;
+        slot.relaxed = relaxed;
+        slot.attempts = attempts;
+        slot.latencyNanos = latencyNanos;
+        slot.published = sequence;
+    }
+
+    void recordPoolEmpty(QuestionPoolKey key) {
+        long sequence = claimed.getAndIncrement();
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.published = -1;
+        VarHandle.storeStoreFence();
+        slot.kind = POOL_EMPTY;
+        slot.gameId = null;
+        slot.cardId = null;
+        slot.category = null;
+        slot.topic = key.topic();
+        slot.difficulty = key.difficulty();
+        slot.language = key.language();
+        slot.poolSize = 0;
+        slot.relaxed = List.of();
+        slot.attempts = 0;
+        slot.latencyNanos = 0;
+        slot.published = sequence;
+    }
+
+    /**
+     * Consumes everything published so far. Only ever called from the consumer thread, or from tests and shutdown
+     * once the consumer has stopped.
+     */
+    synchronized void drain() {
+        long end = claimed.get();
+        if (end - consumed > slots.length) {
+            summary.dropped += end - consumed - slots.length;
+            consumed = end - slots.length;
+        }
+
+        Event event = new Event();
+        while (consumed < end) {
+            Slot slot = slots[(int) (consumed & mask)];
+            if (slot.published != consumed) {
+                if (claimed.get() - consumed > slots.length) {
+                    summary.dropped += 1;
+                    consumed += 1;
+                    continue;
+                }
+                break;
+            }
+            event.copyFrom(slot);
+            VarHandle.loadLoadFence();
+            if (slot.published != consumed) {
+                summary.dropped += 1;
+            } else {
+                apply(event);
+            }
+            consumed += 1;
+        }
+
+        if (summary.dropped > 0) {
+            meterRegistry.counter("smartiq.journal.dropped").increment(summary.dropped);
+            summary.droppedInPeriod += summary.dropped;
+            summary.dropped = 0;
+        }
+        long now = System.nanoTime();
+        if (now - lastSummaryAt >= TimeUnit.SECONDS.toNanos(properties.summaryIntervalSeconds())) {
+            summary.logAndReset(properties.summaryIntervalSeconds());
+            lastSummaryAt = now;
+        }
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (RuntimeException ex) {
+            log.warn("Selection journal drain failed", ex);
+        }
+    }
+
+    private void apply(Event event) {
+        boolean sampled = properties.logSampleRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < properties.logSampleRate();
+
+        if (event.kind == POOL_EMPTY) {
+            Tags tags = Tags.of(
+                    "topic", safeTag(event.topic),
+                    "difficulty", safeTag(event.difficulty),
+                    "language", safeTag(event.language)
+            );
+            meterRegistry.counter("smartiq.pool.empty", tags).increment();
+            summary.poolEmpty.merge(event.topic + "/" + event.difficulty + "/" + event.language, 1, Integer::sum);
+            if (sampled) {
+                log.info("Question pool empty for key topic={} difficulty={} language={}; using DB fallback.",
+                        event.topic, event.difficulty, event.language);
+            }
+            return;
+        }
+
+        String relaxedTag = event.relaxed.isEmpty() ? "none" : String.join("+", event.relaxed);
+        meterRegistry.counter("smartiq.deck.selections", "relaxed", relaxedTag).increment();
+        meterRegistry.timer("smartiq.deck.selection.latency").record(event.latencyNanos, TimeUnit.NANOSECONDS);
+        summary.deckSelections += 1;
+        summary.relaxed.merge(relaxedTag, 1, Integer::sum);
+        summary.maxLatencyNanos = Math.max(summary.maxLatencyNanos, event.latencyNanos);
+        if (sampled) {
+            log.info("nextRandom gameId={} cardId={} category={} topic={} language={} pool={} relaxed={} attempts={} latencyMicros={}",
+                    event.gameId,
+                    event.cardId,
+                    event.category,
+                    event.topic,
+                    event.language,
+                    event.poolSize,
+                    event.relaxed,
+                    event.attempts,
+                    event.latencyNanos / 1_000);
+        }
+    }
+
+    private static String safeTag(String value) {
+        return value == null ? "unknown" : value;
+    }
+
+    /**
+     * Seqlock-style slot: {@code published} is -1 while a producer is writing and the claimed sequence once it is
+     * done. The payload fields are plain, so the producer fences them after marking the slot busy and the consumer
+     * fences its copy before re-reading the sequence; without the fences either side could reorder payload accesses
+     * across the marker and a torn event would pass the recheck.
+     */
+    private static final class Slot {
+        private volatile long published = -1;
+        private byte kind;
+        private String gameId;
+        private String cardId;
+        private String category;
+        private String topic;
+        private String difficulty;
+        private String language;
+        private int poolSize;
+        private List<String> relaxed;
+        private int attempts;
+        private long latencyNanos;
+    }
+
+    private static final class Event {
+        private byte kind;
+        private String gameId;
+        private String cardId;
+        private String category;
+        private String topic;
+        private String difficulty;
+        private String language;
+        private int poolSize;
+        private List<String> relaxed;
+        private int attempts;
+        private long latencyNanos;
+
+        private void copyFrom(Slot slot) {
+            kind = slot.kind;
+            gameId = slot.gameId;
+            cardId = slot.cardId;
+            category = slot.category;
+            topic = slot.topic;
+            difficulty = slot.difficulty;
+            language = slot.language;
+            poolSize = slot.poolSize;
+            relaxed = slot.relaxed;
+            attempts = slot.attempts;
+            latencyNanos = slot.latencyNanos;
+        }
+    }
+
+    private static final class Summary {
+        private long deckSelections;
+        private long maxLatencyNanos;
+        private long dropped;
+        private long droppedInPeriod;
+        private final Map<String, Integer> relaxed = new TreeMap<>();
+        private final Map<String, Integer> poolEmpty = new TreeMap<>();
+
+        private void logAndReset(int periodSeconds) {
+            if (deckSelections > 0 || !poolEmpty.isEmpty() || droppedInPeriod > 0) {
+                log.info("selection_summary periodSeconds={} deckSelections={} relaxed={} maxLatencyMicros={} poolEmpty={} dropped={}",
+                        periodSeconds,
+                        deckSelections,
+                        relaxed,
+                        maxLatencyNanos / 1_000,
+                        poolEmpty,
+                        droppedInPeriod);
+            }
+            deckSelections = 0;
+            maxLatencyNanos = 0;
+            droppedInPeriod = 0;
+            relaxed.clear();
+            poolEmpty.clear();
+        }
+    }
+}
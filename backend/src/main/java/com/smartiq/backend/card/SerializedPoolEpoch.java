@@ -0,0 +1,371 @@
+package com.smartiq.backend.card;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PoolEpoch} packed into direct buffers, so a pool costs a handful of heap objects however many cards it holds.
+ * Cards are decoded on every {@link #card(int)}. Records are laid out back to back in epoch order; a slot table holds
+ * each position's record offset, and an open-addressing table maps 64-bit id hashes to positions for
+ * {@link #contains(String)}. Ids are compared by hash, so two ids with the same 64-bit hash count as duplicates.
+ * Like {@link HeapPoolEpoch}, an epoch records the version of the catalog its cards were copied from and stops
+ * resolving once the catalog is reloaded, so edited or deleted cards are not served from a stale copy.
+ *
+ * <p>Epochs appended from one another share those buffers: an append from the newest epoch writes past its end into
+ * spare capacity, which older epochs never read. Slots and records are sized from the cards actually held and grow
+ * geometrically up to the pool capacity, so a pool filled to a small adaptive target does not reserve room for a full
+ * one. An append from any other epoch, or past the slot capacity, copies into fresh buffers.
+ */
+final class SerializedPoolEpoch extends PoolEpoch {
+
+    static final SerializedPoolEpoch EMPTY = new SerializedPoolEpoch(0, 0, 0, 0, new Slots(0, 0), ByteBuffer.allocateDirect(0));
+
+    private static final int NULL_LENGTH = -1;
+
+    private final long catalogVersion;
+    private final int size;
+    private final int recordsEnd;
+    private final Slots slots;
+    private final ByteBuffer records;
+
+    private SerializedPoolEpoch(long number, long catalogVersion, int size, int recordsEnd, Slots slots, ByteBuffer records) {
+        super(number);
+        this.catalogVersion = catalogVersion;
+        this.size = size;
+        this.recordsEnd = recordsEnd;
+        this.slots = slots;
+        this.records = records;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    /**
+     * Direct memory held by this epoch, including spare capacity shared with the epochs appended from it.
+     */
+    int offHeapBytes() {
+        return records.capacity() + slots.offsets.capacity() + slots.table.capacity();
+    }
+
+    @Override
+    CardResponse card(CardCatalog catalog, int position) {
+        return readableWith(catalog) ? card(position) : null;
+    }
+
+    /**
+     * The card at {@code position}, decoded from the epoch's own copy of it.
+     */
+    CardResponse card(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        return decode(slots.offset(position));
+    }
+
+    @Override
+    boolean contains(CardCatalog catalog, int ordinal) {
+        return readableWith(catalog) && contains(catalog.card(ordinal).id());
+    }
+
+    boolean contains(String cardId) {
+        return cardId != null && slots.position(hash(cardId), size) >= 0;
+    }
+
+    @Override
+    boolean readableWith(CardCatalog catalog) {
+        return size == 0 || catalog.version() == catalogVersion;
+    }
+
+    @Override
+    SerializedPoolEpoch append(CardCatalog catalog, int[] ordinals, int capacity) {
+        if (!readableWith(catalog)) {
+            return next(catalog, ordinals, capacity);
+        }
+        return withCards(number(), this, catalog, ordinals, capacity);
+    }
+
+    @Override
+    SerializedPoolEpoch next(CardCatalog catalog, int[] ordinals, int capacity) {
+        return withCards(number() + 1, EMPTY, catalog, ordinals, capacity);
+    }
+
+    private static SerializedPoolEpoch withCards(long number,
+                                                 SerializedPoolEpoch base,
+                                                 CardCatalog catalog,
+                                                 int[] ordinals,
+                                                 int capacity) {
+        List<byte[]> added = new ArrayList<>();
+        List<Long> hashes = new ArrayList<>();
+        Set<Long> batch = new HashSet<>();
+        for (int ordinal : ordinals) {
+            if (base.size + added.size() >= capacity) {
+                break;
+            }
+            CardResponse card = catalog.card(ordinal);
+            long hash = hash(card.id());
+            if (base.slots.position(hash, base.size) < 0 && batch.add(hash)) {
+                hashes.add(hash);
+                added.add(encode(card));
+            }
+        }
+        if (added.isEmpty() && number == base.number()) {
+            return base;
+        }
+
+        int size = base.size + added.size();
+        int recordsEnd = base.recordsEnd + added.stream().mapToInt(record -> record.length).sum();
+        Slots slots = base.slots;
+        ByteBuffer records = base.records;
+        boolean inPlace = size <= slots.capacity && slots.tip.compareAndSet(base.size, size);
+        if (!inPlace) {
+            slots = base.slots.copy(base.size, slotCapacity(size, base.slots.capacity, capacity), size);
+        }
+        if (!inPlace || recordsEnd > records.capacity()) {
+            records = ByteBuffer.allocateDirect(recordsCapacity(recordsEnd, size, slots.capacity, inPlace ? records.capacity() : 0));
+            records.put(0, base.records, 0, base.recordsEnd);
+        }
+
+        int offset = base.recordsEnd;
+        for (int i = 0; i < added.size(); i++) {
+            records.put(offset, added.get(i));
+            slots.add(hashes.get(i), base.size + i, offset);
+            offset += added.get(i).length;
+        }
+        return new SerializedPoolEpoch(number, catalog.version(), size, recordsEnd, slots, records);
+    }
+
+    /**
+     * Room for {@code size} positions and at least twice the slots being outgrown, but never more than the pool's
+     * {@code capacity}.
+     */
+    private static int slotCapacity(int size, int current, int capacity) {
+        return Math.max(size, Math.min(capacity, 2 * current));
+    }
+
+    /**
+     * Room for {@code needed} bytes plus, when growing in place, at least as much again; a fresh buffer is sized for
+     * the remaining slots at the current average record length.
+     */
+    private static int recordsCapacity(int needed, int size, int slotCapacity, int current) {
+        long estimate = size == 0 ? needed : (long) needed * slotCapacity / size;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(Math.max(needed, estimate), 2L * current));
+    }
+
+    private static byte[] encode(CardResponse card) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, card.id());
+            writeString(out, card.cardId());
+            writeString(out, card.topic());
+            writeString(out, card.subtopic());
+            writeString(out, card.category());
+            writeString(out, card.language());
+            writeString(out, card.question());
+            if (card.options() == null) {
+                out.writeInt(NULL_LENGTH);
+            } else {
+                out.writeInt(card.options().size());
+                for (String option : card.options()) {
+                    writeString(out, option);
+                }
+            }
+            out.writeInt(card.correctIndex() == null ? Integer.MIN_VALUE : card.correctIndex());
+            writeString(out, card.difficulty());
+            writeString(out, card.source());
+            out.writeLong(card.createdAt() == null ? Long.MIN_VALUE : card.createdAt().getEpochSecond());
+            out.writeInt(card.createdAt() == null ? 0 : card.createdAt().getNano());
+            writeString(out, card.correctFlags());
+            writeString(out, card.correctMeta());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private CardResponse decode(int offset) {
+        Reader in = new Reader(records, offset);
+        String id = in.string();
+        String cardId = in.string();
+        String topic = in.string();
+        String subtopic = in.string();
+        String category = in.string();
+        String language = in.string();
+        String question = in.string();
+        int optionCount = in.integer();
+        List<String> options = null;
+        if (optionCount != NULL_LENGTH) {
+            String[] values = new String[optionCount];
+            for (int i = 0; i < optionCount; i++) {
+                values[i] = in.string();
+            }
+            options = List.of(values);
+        }
+        int correctIndex = in.integer();
+        String difficulty = in.string();
+        String source = in.string();
+        long createdSeconds = in.longValue();
+        int createdNanos = in.integer();
+        return new CardResponse(
+                id,
+                cardId,
+                topic,
+                subtopic,
+                category,
+                language,
+                question,
+                options,
+                correctIndex == Integer.MIN_VALUE ? null : correctIndex,
+                difficulty,
+                source,
+                createdSeconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(createdSeconds, createdNanos),
+                in.string(),
+                in.string()
+        );
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    /**
+     * 64-bit FNV-1a over the id's UTF-16 code units.
+     */
+    private static long hash(String cardId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < cardId.length(); i++) {
+            hash ^= cardId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Record offsets and the id-hash table shared by a chain of appended epochs. {@code tip} is the size of the newest
+     * epoch; only the append that moves it may write past it, so readers of older epochs never see a slot or table
+     * cell change under them.
+     */
+    private static final class Slots {
+
+        // Each cell is a 64-bit hash followed by position + 1, zero marking a free cell.
+        private static final int CELL_BYTES = Long.BYTES + Integer.BYTES;
+
+        private final int capacity;
+        private final int mask;
+        private final ByteBuffer offsets;
+        private final ByteBuffer table;
+        private final AtomicInteger tip;
+
+        Slots(int capacity, int tip) {
+            int cells = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1;
+            this.capacity = capacity;
+            this.mask = cells - 1;
+            this.offsets = ByteBuffer.allocateDirect(Integer.BYTES * capacity);
+            this.table = ByteBuffer.allocateDirect(CELL_BYTES * cells);
+            this.tip = new AtomicInteger(tip);
+        }
+
+        int offset(int position) {
+            return offsets.getInt(Integer.BYTES * position);
+        }
+
+        /**
+         * Position of {@code hash} among the first {@code size} positions, or -1. A cell claimed after an epoch was
+         * published was free when it was published, so its own entries all sit before any such cell in their probe
+         * sequence.
+         */
+        int position(long hash, int size) {
+            for (int cell = start(hash); ; cell = (cell + 1) & mask) {
+                int marker = table.getInt(CELL_BYTES * cell + Long.BYTES);
+                if (marker == 0) {
+                    return -1;
+                }
+                if (table.getLong(CELL_BYTES * cell) == hash) {
+                    return marker - 1 < size ? marker - 1 : -1;
+                }
+            }
+        }
+
+        void add(long hash, int position, int offset) {
+            offsets.putInt(Integer.BYTES * position, offset);
+            int cell = start(hash);
+            while (table.getInt(CELL_BYTES * cell + Long.BYTES) != 0) {
+                cell = (cell + 1) & mask;
+            }
+            table.putLong(CELL_BYTES * cell, hash);
+            table.putInt(CELL_BYTES * cell + Long.BYTES, position + 1);
+        }
+
+        /**
+         * Fresh slots with room for {@code capacity} positions holding this table's first {@code size} positions,
+         * already claimed up to {@code tip}.
+         */
+        Slots copy(int size, int capacity, int tip) {
+            Slots copy = new Slots(capacity, tip);
+            for (int cell = 0; cell <= mask; cell++) {
+                int marker = table.getInt(CELL_BYTES * cell + Long.BYTES);
+                if (marker != 0 && marker - 1 < size) {
+                    copy.add(table.getLong(CELL_BYTES * cell), marker - 1, offset(marker - 1));
+                }
+            }
+            return copy;
+        }
+
+        private int start(long hash) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * Sequential reader over absolute positions, so concurrent decodes never touch the shared buffer's position.
+     */
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private int position;
+
+        Reader(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int integer() {
+            int value = buffer.getInt(position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        long longValue() {
+            long value = buffer.getLong(position);
+            position += Long.BYTES;
+            return value;
+        }
+
+        String string() {
+            int length = integer();
+            if (length == NULL_LENGTH) {
+                return null;
+            }
+            byte[] encoded = new byte[length];
+            buffer.get(position, encoded);
+            position += length;
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+    }
+}
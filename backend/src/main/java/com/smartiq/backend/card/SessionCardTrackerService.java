@@ -6,6 +6,7 @@ import com.smartiq.backend.config.SessionDedupProperties;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -14,11 +15,11 @@ import java.util.concurrent.TimeUnit;
 public class SessionCardTrackerService {
 
     private final SessionDedupProperties properties;
-    private final Cache<String, Set<String>> sessionCardIds;
+    private final Cache<String, SessionState> sessions;
 
     public SessionCardTrackerService(SessionDedupProperties properties) {
         this.properties = properties;
-        this.sessionCardIds = Caffeine.newBuilder()
+        this.sessions = Caffeine.newBuilder()
                 .expireAfterWrite(properties.ttlMinutes(), TimeUnit.MINUTES)
                 .maximumSize(properties.maxSessions())
                 .build();
@@ -28,7 +29,17 @@ public class SessionCardTrackerService {
         if (!properties.enabled() || sessionId == null || sessionId.isBlank()) {
             return Collections.emptySet();
         }
-        return sessionCardIds.get(sessionId.trim(), key -> ConcurrentHashMap.newKeySet());
+        return stateFor(sessionId).servedIds;
+    }
+
+    /**
+     * Per-key pool cursors for the session, or null when the request has no session to track.
+     */
+    public Map<QuestionPoolKey, PoolCursor> cursorsForSession(String sessionId) {
+        if (!properties.enabled() || sessionId == null || sessionId.isBlank()) {
+            return null;
+        }
+        return stateFor(sessionId).cursors;
     }
 
     public void markServed(String sessionId, String cardId) {
@@ -44,4 +55,13 @@ public class SessionCardTrackerService {
         }
         return servedIdsForSession(sessionId).add(cardId);
     }
+
+    private SessionState stateFor(String sessionId) {
+        return sessions.get(sessionId.trim(), key -> new SessionState());
+    }
+
+    private static final class SessionState {
+        private final Set<String> servedIds = ConcurrentHashMap.newKeySet();
+        private final Map<QuestionPoolKey, PoolCursor> cursors = new ConcurrentHashMap<>();
+    }
 }
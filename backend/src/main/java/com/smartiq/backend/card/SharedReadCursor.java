@@ -0,0 +1,198 @@
+package com.smartiq.backend.card;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Round-robin position for a pool's session-less reads. It starts as one counter; once enough reads collide on it
+ * within one contention window the key counts as hot and reads spread over per-core stripes, stripe {@code s} walking
+ * positions {@code s, s + n, s + 2n, ...} of the epoch. A stripe that has served its slice for the current pass steals
+ * reads from siblings that have not, so every position is still served once per pass and {@code onPassComplete} still
+ * fires once per pass. Collisions only count within their window, and a hot key whose stripes see little contention
+ * for a whole window goes back to the single counter.
+ *
+ * <p>Stripes are laid out for one epoch number and size. An append that grows the epoch, or a switch between the
+ * counter and the stripes, does not carry progress over: the pass that was under way is abandoned and a fresh one
+ * starts, so positions already served in it may come round again before the rest. Readers still holding an epoch the
+ * stripes were not laid out for use the single counter.
+ */
+final class SharedReadCursor {
+
+    private static final int MAX_STRIPES = 64;
+    private static final int DEFAULT_CONTENTION_THRESHOLD = 64;
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // A hot key cools down once its stripes collide less than this fraction of the threshold in a window.
+    private static final int COOL_DOWN_DIVISOR = 8;
+    // Two cache lines between stripe counters, so adjacent-line prefetch does not couple them either.
+    private static final int PADDING = 16;
+
+    private final int stripeCount;
+    private final int contentionThreshold;
+    private final Runnable onPassComplete;
+    private final LongSupplier clock;
+    private final AtomicLong base = new AtomicLong();
+    private final LongAdder collisions = new LongAdder();
+    private final AtomicLong windowStart;
+    private volatile boolean hot;
+    private volatile Stripes stripes;
+
+    SharedReadCursor(Runnable onPassComplete) {
+        this(defaultStripeCount(), DEFAULT_CONTENTION_THRESHOLD, onPassComplete);
+    }
+
+    /**
+     * Cursor with {@code stripeCount} stripes (a power of two) that goes striped after {@code contentionThreshold}
+     * collisions in a window, or straight away and for good when the threshold is not positive.
+     */
+    SharedReadCursor(int stripeCount, int contentionThreshold, Runnable onPassComplete) {
+        this(stripeCount, contentionThreshold, onPassComplete, System::nanoTime);
+    }
+
+    SharedReadCursor(int stripeCount, int contentionThreshold, Runnable onPassComplete, LongSupplier clock) {
+        this.stripeCount = stripeCount;
+        this.contentionThreshold = contentionThreshold;
+        this.onPassComplete = onPassComplete;
+        this.clock = clock;
+        this.windowStart = new AtomicLong(clock.getAsLong());
+        this.hot = stripeCount > 1 && contentionThreshold <= 0;
+    }
+
+    /**
+     * Next position to serve in {@code epoch}, which must not be empty.
+     */
+    int next(PoolEpoch epoch) {
+        int size = epoch.size();
+        if (hot && size >= stripeCount * 2) {
+            Stripes current = stripesFor(epoch.number(), size);
+            if (current.epochNumber == epoch.number() && current.size == size) {
+                return current.next(probe());
+            }
+        }
+
+        long read = base.get();
+        if (!base.compareAndSet(read, read + 1)) {
+            if (stripeCount > 1) {
+                collided();
+            }
+            read = base.getAndIncrement();
+        }
+        int position = (int) Math.floorMod(read, (long) size);
+        if (position == size - 1) {
+            passCompleted();
+        }
+        return position;
+    }
+
+    boolean isStriped() {
+        return hot;
+    }
+
+    /**
+     * Counts one lost race on the counter or a stripe, turning the key hot once the window holds enough of them.
+     */
+    void collided() {
+        rollWindowIfDue();
+        collisions.increment();
+        if (!hot && collisions.sum() >= contentionThreshold) {
+            hot = true;
+            collisions.reset();
+            windowStart.set(clock.getAsLong());
+        }
+    }
+
+    private void passCompleted() {
+        rollWindowIfDue();
+        onPassComplete.run();
+    }
+
+    /**
+     * Closes the contention window once it has run its length: collisions seen in it are dropped, and a hot key whose
+     * stripes barely collided goes back to the single counter. Checked on collisions and pass completions only, so
+     * uncontended reads never read the clock.
+     */
+    private void rollWindowIfDue() {
+        long now = clock.getAsLong();
+        long start = windowStart.get();
+        if (now - start < WINDOW_NANOS || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        long seen = collisions.sumThenReset();
+        if (hot && seen < contentionThreshold / COOL_DOWN_DIVISOR) {
+            hot = false;
+        }
+    }
+
+    /**
+     * Stripes for the given epoch, or for a newer one if another reader has already moved them on. Epochs only grow
+     * within a number, so stripes are rebuilt when the number or the size goes up and never go back.
+     */
+    private Stripes stripesFor(long epochNumber, int size) {
+        Stripes current = stripes;
+        if (current != null && !current.olderThan(epochNumber, size)) {
+            return current;
+        }
+        synchronized (this) {
+            current = stripes;
+            if (current == null || current.olderThan(epochNumber, size)) {
+                current = new Stripes(epochNumber, size);
+                stripes = current;
+            }
+            return current;
+        }
+    }
+
+    private static int probe() {
+        return Long.hashCode(Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L);
+    }
+
+    private static int defaultStripeCount() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int stripes = Integer.highestOneBit(Math.max(1, cores));
+        return Math.min(MAX_STRIPES, stripes < cores ? stripes << 1 : stripes);
+    }
+
+    /**
+     * Stripe counters for one epoch number and size. A stripe's count never runs past the end of the current pass,
+     * and the pass only advances once every stripe has reached it.
+     */
+    private final class Stripes {
+
+        private final long epochNumber;
+        private final int size;
+        private final AtomicLong pass = new AtomicLong();
+        private final AtomicLongArray counts = new AtomicLongArray(stripeCount * PADDING);
+
+        private Stripes(long epochNumber, int size) {
+            this.epochNumber = epochNumber;
+            this.size = size;
+        }
+
+        boolean olderThan(long epochNumber, int size) {
+            return this.epochNumber < epochNumber || (this.epochNumber == epochNumber && this.size < size);
+        }
+
+        int next(int home) {
+            while (true) {
+                long currentPass = pass.get();
+                for (int i = 0; i < stripeCount; i++) {
+                    int stripe = (home + i) & (stripeCount - 1);
+                    int slots = (size - stripe + stripeCount - 1) / stripeCount;
+                    long limit = (currentPass + 1) * slots;
+                    int index = stripe * PADDING;
+                    for (long count = counts.get(index); count < limit; count = counts.get(index)) {
+                        if (counts.compareAndSet(index, count, count + 1)) {
+                            return stripe + stripeCount * (int) (count % slots);
+                        }
+                        collided();
+                    }
+                }
+                if (pass.compareAndSet(currentPass, currentPass + 1)) {
+                    passCompleted();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.smartiq.backend.card;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The concrete pool keys a wildcard {@link QuestionPoolKey} covers, with their bank sizes. Reads go straight to the
+ * constituent pools; nothing is copied, so a wildcard key costs one small array per catalog snapshot.
+ */
+final class WildcardPoolView {
+
+    static final WildcardPoolView EMPTY = new WildcardPoolView(new QuestionPoolKey[0], new long[0]);
+
+    private final QuestionPoolKey[] keys;
+    private final long[] cumulativeBankSize;
+
+    private WildcardPoolView(QuestionPoolKey[] keys, long[] cumulativeBankSize) {
+        this.keys = keys;
+        this.cumulativeBankSize = cumulativeBankSize;
+    }
+
+    static WildcardPoolView of(List<QuestionPoolKey> keys, int[] bankSizes) {
+        if (keys.isEmpty()) {
+            return EMPTY;
+        }
+        long[] cumulative = new long[bankSizes.length];
+        long total = 0;
+        for (int i = 0; i < bankSizes.length; i++) {
+            total += bankSizes[i];
+            cumulative[i] = total;
+        }
+        return new WildcardPoolView(keys.toArray(QuestionPoolKey[]::new), cumulative);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    QuestionPoolKey key(int index) {
+        return keys[index];
+    }
+
+    long bankSize() {
+        return keys.length == 0 ? 0 : cumulativeBankSize[keys.length - 1];
+    }
+
+    /**
+     * Index of the constituent holding bank position {@code position}, so a uniformly random position picks each key
+     * in proportion to its bank and every covered card is equally likely.
+     */
+    int indexAt(long position) {
+        int found = Arrays.binarySearch(cumulativeBankSize, position + 1);
+        return found >= 0 ? found : -found - 1;
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.smartiq.backend.card.Card;
+import com.smartiq.backend.card.CardCatalogService;
 import com.smartiq.backend.card.CardRepository;
 import com.smartiq.backend.card.LabelCountView;
 import org.slf4j.Logger;
@@ -53,15 +54,18 @@ public class CardImportRunner implements ApplicationRunner {
     );
 
     private final CardRepository cardRepository;
+    private final CardCatalogService cardCatalogService;
     private final ImportProperties importProperties;
     private final ObjectMapper objectMapper;
     private final int minimumCategoryThreshold;
 
     public CardImportRunner(CardRepository cardRepository,
+                            CardCatalogService cardCatalogService,
                             ImportProperties importProperties,
                             ObjectMapper objectMapper,
                             @Value("${smartiq.dataset.min-category-threshold:100}") int minimumCategoryThreshold) {
         this.cardRepository = cardRepository;
+        this.cardCatalogService = cardCatalogService;
         this.importProperties = importProperties;
         this.objectMapper = objectMapper;
         this.minimumCategoryThreshold = minimumCategoryThreshold;
@@ -83,6 +87,7 @@ public class CardImportRunner implements ApplicationRunner {
     private void cleanupDeprecatedSources() {
         long removed = cardRepository.deleteBySourcesLower(DEPRECATED_SOURCES);
         if (removed > 0) {
+            cardCatalogService.invalidate();
             log.info("Removed deprecated seeded cards count={} sources={}", removed, DEPRECATED_SOURCES);
         }
     }
@@ -11,7 +11,11 @@ import org.springframework.context.annotation.Configuration;
         CorsProperties.class,
         BankEnforcerProperties.class,
         InternalAccessProperties.class,
-        RateLimitProperties.class
+        RateLimitProperties.class,
+        SelectionJournalProperties.class,
+        PoolSnapshotProperties.class,
+        RedisStoreProperties.class,
+        PoolSizingProperties.class
 })
 public class ImportConfiguration {
 }
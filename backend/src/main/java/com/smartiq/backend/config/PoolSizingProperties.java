@@ -0,0 +1,15 @@
+package com.smartiq.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "smartiq.pool.sizing")
+public record PoolSizingProperties(
+        boolean adaptive,
+        int minWatermarkPerKey,
+        int minTargetPerKey,
+        long maxTotalEntries,
+        int windowSeconds,
+        int horizonSeconds,
+        double safetyFactor
+) {
+}
@@ -0,0 +1,10 @@
+package com.smartiq.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "smartiq.pool.snapshot")
+public record PoolSnapshotProperties(
+        String path,
+        int intervalSeconds
+) {
+}
@@ -7,6 +7,10 @@ public record QuestionPoolProperties(
         boolean enabled,
         int minimumPerKey,
         int lowWatermarkPerKey,
-        int refillTargetPerKey
+        int refillTargetPerKey,
+        int refillThreads,
+        int refillQueueCapacity,
+        int warmupParallelism,
+        double readyFillFraction
 ) {
 }
@@ -0,0 +1,11 @@
+package com.smartiq.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "smartiq.pool.redis")
+public record RedisStoreProperties(
+        String url,
+        String keyPrefix,
+        long syncIntervalMillis
+) {
+}
@@ -0,0 +1,11 @@
+package com.smartiq.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "smartiq.journal")
+public record SelectionJournalProperties(
+        int capacity,
+        int summaryIntervalSeconds,
+        double logSampleRate
+) {
+}
@@ -32,6 +32,7 @@ public class CorsConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedMethods(List.of("GET", "POST", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("Content-Type", "Authorization"));
+        configuration.setExposedHeaders(List.of("X-Deck-Seed", "X-Deck-Cursor"));
         configuration.setAllowCredentials(false);
         configuration.setAllowedOrigins(resolveAllowedOrigins());
 
@@ -1,5 +1,6 @@
 package com.smartiq.backend.web;
 
+import com.smartiq.backend.card.QuestionPoolService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -12,15 +13,20 @@ import java.util.Map;
 public class HealthController {
 
     private final JdbcTemplate jdbcTemplate;
+    private final QuestionPoolService questionPoolService;
 
-    public HealthController(JdbcTemplate jdbcTemplate) {
+    public HealthController(JdbcTemplate jdbcTemplate, QuestionPoolService questionPoolService) {
         this.jdbcTemplate = jdbcTemplate;
+        this.questionPoolService = questionPoolService;
     }
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         try {
             jdbcTemplate.queryForObject("select 1", Integer.class);
+            if (!questionPoolService.warmupComplete()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "WARMING_UP"));
+            }
             return ResponseEntity.ok(Map.of("status", "UP"));
         } catch (Exception ex) {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "DOWN"));
@@ -62,7 +62,9 @@ public class RateLimitFilter extends OncePerRequestFilter {
     }
 
     private int resolveLimit(String uri) {
-        if ("/api/cards/next".equals(uri) || "/api/cards/nextRandom".equals(uri)) {
+        if ("/api/cards/next".equals(uri)
+                || "/api/cards/nextRandom".equals(uri)
+                || "/api/cards/nextRandom/batch".equals(uri)) {
             return properties.cardsNextPerMinute();
         }
         if ("/api/session/answer".equals(uri)) {
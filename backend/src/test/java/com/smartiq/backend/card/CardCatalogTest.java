@@ -0,0 +1,141 @@
+package com.smartiq.backend.card;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardCatalogTest {
+
+    @Test
+    void indexesDeckPoolsByLanguageAndTopicForAllowedSourcesOnly() {
+        CardCatalog catalog = CardCatalog.of(List.of(
+                card("en-math-1", "Math", "2", "en", "smartiq-v2"),
+                card("en-math-legacy", "Math", "2", "en", "smartiq-factory"),
+                card("en-history-1", "History", "1", "en", "smartiq-human"),
+                card("et-math-1", "Math", "2", "et", "smartiq-v2")
+        ));
+
+        assertThat(catalog.deckPool("en", null).cards()).extracting(CardResponse::id)
+                .containsExactlyInAnyOrder("en-math-1", "en-history-1");
+        assertThat(catalog.deckPool("EN", " math ").cards()).extracting(CardResponse::id)
+                .containsExactly("en-math-1");
+        assertThat(catalog.deckPool("de", null).isEmpty()).isTrue();
+    }
+
+    @Test
+    void resolvesDeckWithEnglishFallbackAndRemembersEmptyCombinations() {
+        CardCatalog catalog = CardCatalog.of(List.of(
+                card("en-math-1", "Math", "2", "en", "smartiq-v2"),
+                card("et-history-1", "History", "1", "et", "smartiq-v2")
+        ));
+
+        assertThat(catalog.hasDeckCards("et", "Math")).isFalse();
+        assertThat(catalog.hasDeckCards("ET", "history")).isTrue();
+
+        CardCatalog.DeckResolution direct = catalog.resolveDeck("et", "History");
+        assertThat(direct.languageRelaxed()).isFalse();
+        assertThat(direct.pool().cards()).extracting(CardResponse::id).containsExactly("et-history-1");
+
+        CardCatalog.DeckResolution fallback = catalog.resolveDeck("et", "Math");
+        assertThat(fallback.language()).isEqualTo("en");
+        assertThat(fallback.languageRelaxed()).isTrue();
+        assertThat(catalog.resolveDeck("et", "Math")).isSameAs(fallback);
+
+        assertThat(catalog.resolveDeck("de", "Sports")).isNull();
+    }
+
+    @Test
+    void matchesPoolKeysAndWildcardFilters() {
+        CardCatalog catalog = CardCatalog.of(List.of(
+                card("en-math-1", "Math", "2", "en", "smartiq-v2"),
+                card("en-math-2", "Math", "1", "en", "smartiq-v2"),
+                card("et-math-1", "Math", "2", "et", "smartiq-v2")
+        ));
+
+        assertThat(catalog.matching("math", "2", "en")).hasSize(1);
+        assertThat(catalog.matching("Math", null, "en")).hasSize(2);
+        assertThat(catalog.matching(null, "2", null)).hasSize(2);
+        assertThat(catalog.matching(null, null, null)).hasSize(3);
+        assertThat(catalog.randomCard(catalog.matching("Math", null, "en"), Set.of("en-math-1")).id())
+                .isEqualTo("en-math-2");
+        assertThat(catalog.randomCard(catalog.matching("Math", "2", "en"), Set.of("en-math-1"))).isNull();
+    }
+
+    @Test
+    void wildcardViewCoversConcreteKeysWeightedByBankSize() {
+        CardCatalog catalog = CardCatalog.of(List.of(
+                card("en-math-1", "Math", "2", "en", "smartiq-v2"),
+                card("en-math-2", "Math", "2", "en", "smartiq-v2"),
+                card("en-history-1", "History", "2", "en", "smartiq-v2"),
+                card("en-history-2", "History", "1", "en", "smartiq-v2"),
+                card("et-math-1", "Math", "2", "et", "smartiq-v2")
+        ));
+
+        QuestionPoolKey anyTopic = QuestionPoolKey.from("any", "2", "en");
+        WildcardPoolView view = catalog.wildcardView(anyTopic);
+
+        assertThat(anyTopic.isWildcard()).isTrue();
+        assertThat(view.size()).isEqualTo(2);
+        assertThat(view.bankSize()).isEqualTo(3);
+        List<QuestionPoolKey> byPosition = List.of(
+                view.key(view.indexAt(0)), view.key(view.indexAt(1)), view.key(view.indexAt(2)));
+        assertThat(byPosition).containsOnly(new QuestionPoolKey("math", "2", "en"), new QuestionPoolKey("history", "2", "en"));
+        assertThat(byPosition).filteredOn(key -> key.topic().equals("math")).hasSize(2);
+        assertThat(catalog.wildcardView(anyTopic)).isSameAs(view);
+
+        assertThat(catalog.wildcardView(QuestionPoolKey.from(null, " ", "en")).bankSize()).isEqualTo(4);
+        assertThat(catalog.wildcardView(QuestionPoolKey.from("any", "any", "de")).isEmpty()).isTrue();
+    }
+
+    @Test
+    void sampleReturnsDistinctCardsSkippingExcludedIds() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            cards.add(card("math-" + i, "Math", "2", "en", "smartiq-v2"));
+        }
+        CardCatalog catalog = CardCatalog.of(cards);
+        int[] ordinals = catalog.byPoolKey(new QuestionPoolKey("math", "2", "en"));
+
+        int[] few = catalog.sample(ordinals, 5, ordinal -> catalog.card(ordinal).id().equals("math-7"));
+        int[] most = catalog.sample(ordinals, 45, ordinal -> catalog.card(ordinal).id().endsWith("0"));
+
+        assertThat(ids(catalog, few)).hasSize(5).doesNotHaveDuplicates().doesNotContain("math-7");
+        assertThat(ids(catalog, most)).hasSize(45).doesNotHaveDuplicates().noneMatch(id -> id.endsWith("0"));
+        assertThat(catalog.sample(ordinals, 100, ordinal -> false)).hasSize(50);
+    }
+
+    @Test
+    void versionDependsOnContentNotLoadOrder() {
+        Card first = card("a", "Math", "2", "en", "smartiq-v2");
+        Card second = card("b", "Math", "2", "en", "smartiq-v2");
+
+        long forward = CardCatalog.of(List.of(first, second)).version();
+        long reversed = CardCatalog.of(List.of(second, first)).version();
+        second.setQuestion("Changed?");
+        long changed = CardCatalog.of(List.of(first, second)).version();
+
+        assertThat(forward).isEqualTo(reversed);
+        assertThat(changed).isNotEqualTo(forward);
+    }
+
+    private static List<String> ids(CardCatalog catalog, int[] ordinals) {
+        return Arrays.stream(ordinals).mapToObj(ordinal -> catalog.card(ordinal).id()).toList();
+    }
+
+    private static Card card(String id, String topic, String difficulty, String language, String source) {
+        Card card = new Card();
+        card.setId(id);
+        card.setTopic(topic);
+        card.setCategory("OPEN");
+        card.setDifficulty(difficulty);
+        card.setLanguage(language);
+        card.setSource(source);
+        card.setQuestion("Question " + id);
+        return card;
+    }
+}
@@ -1,6 +1,7 @@
 package com.smartiq.backend.card;
 
 import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +14,11 @@ import java.time.Instant;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest(properties = {
         "smartiq.import.enabled=false",
@@ -36,6 +39,12 @@ class CardControllerTest {
     @Autowired
     private CardRepository cardRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private QuestionPoolService questionPoolService;
+
     @BeforeEach
     void setUp() {
         cardRepository.deleteAll();
@@ -226,6 +235,76 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.options.length()").value(10));
     }
 
+    @Test
+    void returnsNextRandomBatchForGameIdAndLanguage() throws Exception {
+        mockMvc.perform(get("/api/cards/nextRandom/batch")
+                        .param("language", "en")
+                        .param("gameId", "game-batch")
+                        .param("topic", "Math")
+                        .param("count", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].cardId").exists())
+                .andExpect(jsonPath("$[0].language").value("en"))
+                .andExpect(jsonPath("$[2].options.length()").value(10));
+    }
+
+    @Test
+    void returnsBadRequestWhenNextRandomBatchCountOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/cards/nextRandom/batch")
+                        .param("language", "en")
+                        .param("gameId", "game-batch-invalid")
+                        .param("count", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("count must be between 1 and 50"));
+    }
+
+    @Test
+    void seededModeAdvancesCursorAndResumesFromCursorOnAnyGame() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/cards/nextRandom")
+                        .param("language", "en")
+                        .param("gameId", "game-seeded")
+                        .param("mode", "seeded")
+                        .param("seed", "42"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Deck-Seed", "42"))
+                .andExpect(header().string("X-Deck-Cursor", "1"))
+                .andReturn();
+        String cursor = first.getResponse().getHeader("X-Deck-Cursor");
+
+        MvcResult second = mockMvc.perform(get("/api/cards/nextRandom")
+                        .param("language", "en")
+                        .param("gameId", "game-seeded")
+                        .param("mode", "seeded"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String secondId = JsonPath.read(second.getResponse().getContentAsString(), "$.cardId");
+
+        MvcResult resumed = mockMvc.perform(get("/api/cards/nextRandom")
+                        .param("language", "en")
+                        .param("gameId", "game-seeded-other-node")
+                        .param("mode", "seeded")
+                        .param("seed", "42")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(secondId, JsonPath.read(resumed.getResponse().getContentAsString(), "$.cardId"));
+        assertEquals(
+                second.getResponse().getHeader("X-Deck-Cursor"),
+                resumed.getResponse().getHeader("X-Deck-Cursor"));
+    }
+
+    @Test
+    void returnsBadRequestForUnknownDeckMode() throws Exception {
+        mockMvc.perform(get("/api/cards/nextRandom")
+                        .param("language", "en")
+                        .param("gameId", "game-mode")
+                        .param("mode", "shuffled"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unsupported deck mode: shuffled"));
+    }
+
     @Test
     void returnsBadRequestWhenNextRandomGameIdMissing() throws Exception {
         mockMvc.perform(get("/api/cards/nextRandom")
@@ -312,6 +391,18 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.language").value("en"));
     }
 
+    @Test
+    void servesAnyTopicRequestsFromConcretePools() throws Exception {
+        mockMvc.perform(get("/api/cards/next")
+                        .param("topicId", "any")
+                        .param("difficulty", "1")
+                        .param("sessionId", "any-topic-session")
+                        .param("lang", "en"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.topic").value("Math"))
+                .andExpect(jsonPath("$.difficulty").value("1"));
+    }
+
     @Test
     void returnsV2CardWithNumericDifficultyAndOptionObjects() throws Exception {
         mockMvc.perform(get("/api/cards/next")
@@ -390,6 +481,44 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.error").exists());
     }
 
+    @Test
+    void recordsOneHitOrMissPerRequest() throws Exception {
+        long before = requestsCounted("math", "2", "en");
+
+        for (int i = 0; i < 3; i += 1) {
+            mockMvc.perform(get("/api/cards/next")
+                    .param("topicId", "Math")
+                    .param("difficulty", "2")
+                    .param("sessionId", "one-outcome-per-request")
+                    .param("lang", "en"));
+        }
+
+        org.junit.jupiter.api.Assertions.assertEquals(before + 3, requestsCounted("math", "2", "en"));
+    }
+
+    @Test
+    void unknownFiltersDoNotRegisterPerKeyMeters() throws Exception {
+        mockMvc.perform(get("/api/cards/next")
+                        .param("topicId", "Made Up Topic")
+                        .param("difficulty", "7")
+                        .param("sessionId", "made-up-filters")
+                        .param("lang", "en"))
+                .andExpect(status().isNotFound());
+
+        org.junit.jupiter.api.Assertions.assertNull(
+                meterRegistry.find("smartiq.pool.cache.hits").tag("topic", "made up topic").counter());
+        org.junit.jupiter.api.Assertions.assertNotNull(
+                meterRegistry.find("smartiq.pool.fallback.db.hits").tag("topic", "unknown").counter());
+    }
+
+    @Test
+    void fallbackBatchQueryIsBoundedAndFiltered() {
+        List<Card> batch = cardRepository.findRandomBatchByFilters("math", null, "en", 2);
+
+        org.junit.jupiter.api.Assertions.assertEquals(2, batch.size());
+        org.junit.jupiter.api.Assertions.assertTrue(batch.stream().allMatch(card -> "Math".equals(card.getTopic())));
+    }
+
     @Test
     void healthEndpointIsUp() throws Exception {
         mockMvc.perform(get("/health"))
@@ -397,6 +526,13 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.status").value("UP"));
     }
 
+    @Test
+    void readinessIncludesPoolWarmup() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+    }
+
     @Test
     void versionEndpointIsAvailable() throws Exception {
         mockMvc.perform(get("/version"))
@@ -416,4 +552,13 @@ class CardControllerTest {
         mockMvc.perform(get("/actuator/prometheus"))
                 .andExpect(status().isOk());
     }
+
+    private long requestsCounted(String topic, String difficulty, String language) {
+        return questionPoolService.getPoolStats().stream()
+                .filter(stats -> topic.equals(stats.topic())
+                        && difficulty.equals(stats.difficulty())
+                        && language.equals(stats.language()))
+                .mapToLong(stats -> stats.cacheHits() + stats.cacheMisses())
+                .sum();
+    }
 }
@@ -0,0 +1,57 @@
+package com.smartiq.backend.card;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeckPoolTest {
+
+    @Test
+    void countsEligibleCardsPerRelaxationLevel() {
+        DeckPool pool = DeckPool.of(List.of(
+                card("c1", "History", "TRUE_FALSE"),
+                card("c2", "History", "NUMBER"),
+                card("c3", "Sports", "NUMBER"),
+                card("c4", "Science", "ORDER"),
+                card("c5", "science", "OPEN")
+        ));
+        int lastCategory = pool.categoryCode("true_false");
+        int lastTopic = pool.topicCode("HISTORY");
+        long[] recentMask = pool.recentMask(Set.of("c1", "c3", "missing"));
+
+        int[] counts = pool.eligibleCounts(lastCategory, lastTopic, recentMask);
+
+        assertThat(counts[DeckPool.STRICT]).isEqualTo(2);
+        assertThat(counts[DeckPool.RELAX_CARD_ID]).isEqualTo(3);
+        assertThat(counts[DeckPool.RELAX_TOPIC]).isEqualTo(4);
+        assertThat(pool.card(pool.selectEligible(DeckPool.STRICT, 0, lastCategory, lastTopic, recentMask)).id()).isEqualTo("c4");
+        assertThat(pool.card(pool.selectEligible(DeckPool.STRICT, 1, lastCategory, lastTopic, recentMask)).id()).isEqualTo("c5");
+        assertThat(pool.selectEligible(DeckPool.STRICT, 2, lastCategory, lastTopic, recentMask)).isEqualTo(-1);
+    }
+
+    @Test
+    void selectsAcrossWordBoundaries() {
+        List<CardResponse> cards = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            cards.add(card("c" + i, i == 129 ? "Science" : "History", "OPEN"));
+        }
+        DeckPool pool = DeckPool.of(cards);
+        int lastTopic = pool.topicCode("History");
+        long[] recentMask = pool.recentMask(Set.of());
+
+        int[] counts = pool.eligibleCounts(-1, lastTopic, recentMask);
+
+        assertThat(counts[DeckPool.STRICT]).isEqualTo(1);
+        assertThat(counts[DeckPool.RELAX_TOPIC]).isEqualTo(130);
+        assertThat(pool.selectEligible(DeckPool.STRICT, 0, -1, lastTopic, recentMask)).isEqualTo(129);
+        assertThat(pool.selectEligible(DeckPool.RELAX_TOPIC, 64, -1, lastTopic, recentMask)).isEqualTo(64);
+    }
+
+    private static CardResponse card(String id, String topic, String category) {
+        return new CardResponse(id, id, topic, null, category, "en", null, List.of(), null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,45 @@
+package com.smartiq.backend.card;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeckResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DeckResponseCache cache = new DeckResponseCache(objectMapper);
+
+    @Test
+    void reusesBytesForSameCardInstanceAndRebuildsForReloadedCard() throws Exception {
+        CardResponse card = card("c1", "Question?");
+
+        byte[] first = cache.json(card);
+        byte[] again = cache.json(card);
+        byte[] reloaded = cache.json(card("c1", "Changed?"));
+
+        assertThat(again).isSameAs(first);
+        assertThat(objectMapper.readTree(first).get("question").asText()).isEqualTo("Question?");
+        assertThat(objectMapper.readTree(reloaded).get("question").asText()).isEqualTo("Changed?");
+        assertThat(objectMapper.readTree(first).get("correct").get("correctIndex").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void joinsSerializedCardsIntoJsonArray() throws Exception {
+        byte[] array = DeckResponseCache.jsonArray(cache.json(List.of(card("c1", "One?"), card("c2", "Two?"))));
+
+        JsonNode parsed = objectMapper.readTree(array);
+        assertThat(parsed.isArray()).isTrue();
+        assertThat(parsed).extracting(node -> node.get("cardId").asText()).containsExactly("c1", "c2");
+        assertThat(new String(DeckResponseCache.jsonArray(List.of()))).isEqualTo("[]");
+    }
+
+    private static CardResponse card(String id, String question) {
+        List<String> options = List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+        return new CardResponse(id, id, "Science", null, "NUMBER", "en", question, options, 2, "2", "smartiq-v2",
+                null, null, null);
+    }
+}
@@ -0,0 +1,100 @@
+package com.smartiq.backend.card;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EpochCardPoolTest {
+
+    private static final CardCatalog CATALOG = catalog("Question", "c1", "c2", "c3", "c4", "c5");
+
+    @Test
+    void fillAppendsOnlyNewCardsAndKeepsExistingPositions() {
+        EpochCardPool pool = new EpochCardPool(4);
+
+        assertThat(pool.fill(CATALOG, ordinals("c1", "c2", "c1"))).isEqualTo(2);
+        PoolEpoch before = pool.epoch();
+        assertThat(pool.fill(CATALOG, ordinals("c2", "c3", "c4", "c5"))).isEqualTo(2);
+
+        PoolEpoch after = pool.epoch();
+        assertThat(after.number()).isEqualTo(before.number());
+        assertThat(ids(after)).containsExactly("c1", "c2", "c3", "c4");
+        assertThat(after.contains(CATALOG, CATALOG.ordinalOf("c5"))).isFalse();
+        assertThat(after.contains(CATALOG, CATALOG.ordinalOf("c3"))).isTrue();
+    }
+
+    @Test
+    void rotationIsOnlyRequestedForFullEpochsAndStartsNewEpoch() {
+        EpochCardPool pool = new EpochCardPool(2);
+        pool.fill(CATALOG, ordinals("c1"));
+
+        pool.requestRotation(2);
+        assertThat(pool.rotationRequested()).isFalse();
+
+        pool.fill(CATALOG, ordinals("c2"));
+        pool.requestRotation(2);
+        assertThat(pool.rotationRequested()).isTrue();
+
+        long previous = pool.epoch().number();
+        assertThat(pool.rotate(CATALOG, ordinals("c3", "c4"))).isEqualTo(2);
+        assertThat(pool.epoch().number()).isEqualTo(previous + 1);
+        assertThat(pool.epoch().contains(CATALOG, CATALOG.ordinalOf("c1"))).isFalse();
+        assertThat(pool.rotationRequested()).isFalse();
+    }
+
+    @Test
+    void sharedReadsCycleThroughEpoch() {
+        EpochCardPool pool = new EpochCardPool(2);
+        assertThat(pool.nextShared(CATALOG, 2)).isNull();
+        pool.fill(CATALOG, ordinals("c1", "c2"));
+
+        assertThat(List.of(pool.nextShared(CATALOG, 2).id(), pool.nextShared(CATALOG, 2).id(), pool.nextShared(CATALOG, 2).id()))
+                .containsExactly("c1", "c2", "c1");
+        assertThat(pool.rotationRequested()).isTrue();
+    }
+
+    @Test
+    void epochStopsResolvingAfterReloadAndNextFillStartsNewEpoch() {
+        EpochCardPool pool = new EpochCardPool(4);
+        pool.fill(CATALOG, ordinals("c1", "c2", "c3"));
+        PoolEpoch stale = pool.epoch();
+
+        CardCatalog reloaded = catalog("Edited", "c0", "c2", "c3", "c4");
+        assertThat(stale.readableWith(reloaded)).isFalse();
+        assertThat(stale.card(reloaded, 0)).isNull();
+        assertThat(pool.nextShared(reloaded, 4)).isNull();
+        assertThat(stale.readableWith(catalog("Question", "c1", "c2", "c3", "c4", "c5"))).isTrue();
+
+        pool.fill(reloaded, new int[]{reloaded.ordinalOf("c2"), reloaded.ordinalOf("c4")});
+
+        assertThat(pool.epoch().number()).isEqualTo(stale.number() + 1);
+        assertThat(pool.epoch().card(reloaded, 0).question()).isEqualTo("Edited c2");
+        assertThat(pool.epoch().size()).isEqualTo(2);
+    }
+
+    private static int[] ordinals(String... ids) {
+        return Arrays.stream(ids).mapToInt(CATALOG::ordinalOf).toArray();
+    }
+
+    private static List<String> ids(PoolEpoch epoch) {
+        return IntStream.range(0, epoch.size()).mapToObj(i -> epoch.card(CATALOG, i).id()).toList();
+    }
+
+    private static CardCatalog catalog(String questionPrefix, String... ids) {
+        return CardCatalog.of(Arrays.stream(ids).map(id -> {
+            Card card = new Card();
+            card.setId(id);
+            card.setTopic("History");
+            card.setCategory("OPEN");
+            card.setDifficulty("1");
+            card.setLanguage("en");
+            card.setSource("smartiq-v2");
+            card.setQuestion(questionPrefix + " " + id);
+            return card;
+        }).toList());
+    }
+}
@@ -12,21 +12,52 @@ class InMemoryGameHistoryStoreTest {
     void appendTrimsHistoryToLastK() {
         InMemoryGameHistoryStore store = new InMemoryGameHistoryStore();
 
-        store.append("game-1", new DeckCardMeta("c1", "OPEN", "History"), 2);
-        store.append("game-1", new DeckCardMeta("c2", "OPEN", "History"), 2);
-        store.append("game-1", new DeckCardMeta("c3", "OPEN", "History"), 2);
+        append(store, "game-1", 2, new DeckCardMeta("c1", "OPEN", "History"));
+        append(store, "game-1", 2, new DeckCardMeta("c2", "OPEN", "History"));
+        append(store, "game-1", 2, new DeckCardMeta("c3", "OPEN", "History"));
 
-        List<DeckCardMeta> history = store.readRecent("game-1", 20);
+        List<DeckCardMeta> history = store.snapshot("game-1").recent(20);
         assertThat(history).extracting(DeckCardMeta::cardId).containsExactly("c2", "c3");
     }
 
+    @Test
+    void appendAddsBatchInOrderAndTrimsToLastK() {
+        InMemoryGameHistoryStore store = new InMemoryGameHistoryStore();
+        append(store, "game-3", 3, new DeckCardMeta("c1", "OPEN", "History"));
+
+        append(store, "game-3", 3,
+                new DeckCardMeta("c2", "NUMBER", "Science"),
+                new DeckCardMeta("c3", "OPEN", "History"),
+                new DeckCardMeta("c4", "ORDER", "Sports"));
+
+        assertThat(store.snapshot("game-3").recent(20)).extracting(DeckCardMeta::cardId).containsExactly("c2", "c3", "c4");
+    }
+
+    @Test
+    void compareAndAppendRejectsStaleSnapshot() {
+        InMemoryGameHistoryStore store = new InMemoryGameHistoryStore();
+        GameHistory stale = store.snapshot("game-4");
+        append(store, "game-4", 20, new DeckCardMeta("c1", "OPEN", "History"));
+
+        boolean committed = store.compareAndAppend("game-4", stale, List.of(new DeckCardMeta("c2", "NUMBER", "Science")), 20);
+
+        assertThat(committed).isFalse();
+        assertThat(store.compareAndAppend("game-4", store.snapshot("game-4"),
+                List.of(new DeckCardMeta("c2", "NUMBER", "Science")), 20)).isTrue();
+        assertThat(store.snapshot("game-4").recent(20)).extracting(DeckCardMeta::cardId).containsExactly("c1", "c2");
+    }
+
     @Test
     void evictRemovesGameHistory() {
         InMemoryGameHistoryStore store = new InMemoryGameHistoryStore();
-        store.append("game-2", new DeckCardMeta("c1", "OPEN", "History"), 20);
+        append(store, "game-2", 20, new DeckCardMeta("c1", "OPEN", "History"));
 
         store.evict("game-2");
 
-        assertThat(store.readRecent("game-2", 20)).isEmpty();
+        assertThat(store.snapshot("game-2").recent(20)).isEmpty();
+    }
+
+    private static void append(InMemoryGameHistoryStore store, String gameId, int maxSize, DeckCardMeta... cardMetas) {
+        assertThat(store.compareAndAppend(gameId, store.snapshot(gameId), List.of(cardMetas), maxSize)).isTrue();
     }
 }
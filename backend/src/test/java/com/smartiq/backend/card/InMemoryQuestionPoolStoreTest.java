@@ -0,0 +1,98 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.QuestionPoolProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryQuestionPoolStoreTest {
+
+    private static final QuestionPoolProperties POOL_PROPERTIES = new QuestionPoolProperties(true, 1, 1, 10, 1, 10, 1, 0.8);
+
+    @Test
+    void countersHandleIsStablePerKeyAndFeedsSnapshot() {
+        InMemoryQuestionPoolStore store = new InMemoryQuestionPoolStore(POOL_PROPERTIES, mock(CardCatalogService.class));
+        QuestionPoolKey key = new QuestionPoolKey("history", "2", "en");
+
+        PoolKeyCounters counters = store.countersForKey(key);
+        counters.recordCacheHit();
+        counters.recordCacheHit();
+        counters.recordCacheMiss();
+        store.countersForKey(key).recordRefill();
+
+        assertThat(store.countersForKey(key)).isSameAs(counters);
+        assertThat(store.snapshot()).singleElement().satisfies(stats -> {
+            assertThat(stats.cacheHits()).isEqualTo(2);
+            assertThat(stats.cacheMisses()).isEqualTo(1);
+            assertThat(stats.cacheHitRate()).isEqualTo(2.0 / 3.0);
+            assertThat(stats.refillCount()).isEqualTo(1);
+            assertThat(stats.lastRefillAt()).isNotNull();
+            assertThat(stats.poolSize()).isZero();
+        });
+    }
+
+    @Test
+    void idlePoolShrinksToSeedAndWarmsBackWithoutLosingCounters() {
+        CardCatalog catalog = catalog(10);
+        CardCatalogService catalogService = mock(CardCatalogService.class);
+        when(catalogService.current()).thenReturn(catalog);
+        AtomicLong now = new AtomicLong();
+        InMemoryQuestionPoolStore store = new InMemoryQuestionPoolStore(POOL_PROPERTIES, catalogService, PoolEpoch.EMPTY, now::get);
+        QuestionPoolKey idle = new QuestionPoolKey("history", "1", "en");
+        QuestionPoolKey busy = new QuestionPoolKey("history", "2", "en");
+
+        store.poolForKey(idle).fill(catalog, IntStream.range(0, 10).toArray());
+        store.countersForKey(idle).recordCacheHit();
+        now.addAndGet(InMemoryQuestionPoolStore.IDLE_BEFORE_SEEDING_NANOS + TimeUnit.MINUTES.toNanos(1));
+        store.poolForKey(busy);
+        store.seedIdlePools();
+
+        assertThat(store.poolSize(idle)).isEqualTo(InMemoryQuestionPoolStore.SEED_SIZE);
+        assertThat(store.countersForKey(idle).cacheHits()).isEqualTo(1);
+
+        CardPool warmed = store.poolForKey(idle);
+        assertThat(warmed.capacity()).isEqualTo(10);
+        assertThat(warmed.size()).isEqualTo(InMemoryQuestionPoolStore.SEED_SIZE);
+        assertThat(warmed.fill(catalog, IntStream.range(0, 10).toArray())).isEqualTo(2);
+        assertThat(store.snapshot()).extracting(PoolKeyStats::poolSize).containsExactly(10, 0);
+    }
+
+    @Test
+    void poolReadWhileItsSeedIsBuiltIsNotSeeded() {
+        CardCatalog catalog = catalog(10);
+        CardCatalogService catalogService = mock(CardCatalogService.class);
+        AtomicLong now = new AtomicLong();
+        InMemoryQuestionPoolStore store = new InMemoryQuestionPoolStore(POOL_PROPERTIES, catalogService, PoolEpoch.EMPTY, now::get);
+        QuestionPoolKey key = new QuestionPoolKey("history", "1", "en");
+        store.poolForKey(key).fill(catalog, IntStream.range(0, 10).toArray());
+        now.addAndGet(InMemoryQuestionPoolStore.IDLE_BEFORE_SEEDING_NANOS + TimeUnit.MINUTES.toNanos(1));
+        when(catalogService.current()).thenAnswer(invocation -> {
+            store.poolForKey(key);
+            return catalog;
+        });
+
+        store.seedIdlePools();
+
+        assertThat(store.poolSize(key)).isEqualTo(10);
+    }
+
+    private static CardCatalog catalog(int size) {
+        return CardCatalog.of(IntStream.range(0, size).mapToObj(i -> {
+            Card card = new Card();
+            card.setId("h" + i);
+            card.setTopic("History");
+            card.setCategory("OPEN");
+            card.setDifficulty("1");
+            card.setLanguage("en");
+            card.setSource("smartiq-v2");
+            card.setQuestion("Question " + i);
+            return card;
+        }).toList());
+    }
+}
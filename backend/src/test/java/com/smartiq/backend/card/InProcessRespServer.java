@@ -0,0 +1,364 @@
+package com.smartiq.backend.card;
+
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaInteger;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal single-node RESP2 server for tests: the string, list and set commands the pool store uses, plus
+ * {@code EVAL}/{@code EVALSHA} backed by LuaJ. Commands run one at a time, as on a real server, so scripts are atomic.
+ */
+final class InProcessRespServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Object> data = new HashMap<>();
+    private final Map<String, String> scripts = new HashMap<>();
+    private final Globals lua = JsePlatform.standardGlobals();
+    private final Thread acceptor;
+
+    InProcessRespServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        LuaTable redis = new LuaTable();
+        redis.set("call", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                List<String> command = new ArrayList<>(args.narg());
+                for (int i = 1; i <= args.narg(); i++) {
+                    command.add(args.arg(i).tojstring());
+                }
+                try {
+                    return toLua(execute(command));
+                } catch (CommandException ex) {
+                    throw new LuaError(ex.getMessage());
+                }
+            }
+        });
+        lua.set("redis", redis);
+        acceptor = new Thread(this::acceptLoop, "resp-stand-in");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    synchronized void flushAll() {
+        data.clear();
+        scripts.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread connection = new Thread(() -> serve(socket), "resp-stand-in-connection");
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (true) {
+                List<String> command = readCommand(in);
+                Object reply;
+                synchronized (this) {
+                    try {
+                        reply = execute(command);
+                    } catch (CommandException ex) {
+                        reply = ex;
+                    }
+                }
+                write(out, reply);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException ex) {
+            // client went away
+        }
+    }
+
+    private Object execute(List<String> command) {
+        String name = command.get(0).toUpperCase(Locale.ROOT);
+        return switch (name) {
+            case "PING" -> new Status("PONG");
+            case "CLIENT", "SELECT" -> new Status("OK");
+            case "FLUSHALL" -> {
+                data.clear();
+                yield new Status("OK");
+            }
+            case "GET" -> stringAt(command.get(1));
+            case "SET" -> {
+                data.put(command.get(1), command.get(2));
+                yield new Status("OK");
+            }
+            case "INCR" -> {
+                String current = stringAt(command.get(1));
+                long value = (current == null ? 0 : Long.parseLong(current)) + 1;
+                data.put(command.get(1), Long.toString(value));
+                yield value;
+            }
+            case "DEL" -> {
+                long removed = 0;
+                for (String key : command.subList(1, command.size())) {
+                    removed += data.remove(key) == null ? 0 : 1;
+                }
+                yield removed;
+            }
+            case "EXISTS" -> {
+                long present = 0;
+                for (String key : command.subList(1, command.size())) {
+                    present += data.containsKey(key) ? 1 : 0;
+                }
+                yield present;
+            }
+            case "RPUSH" -> {
+                List<String> list = listAt(command.get(1), true);
+                list.addAll(command.subList(2, command.size()));
+                yield (long) list.size();
+            }
+            case "LLEN" -> (long) listAt(command.get(1), false).size();
+            case "LINDEX" -> {
+                List<String> list = listAt(command.get(1), false);
+                int index = normalize(Integer.parseInt(command.get(2)), list.size());
+                yield index >= 0 && index < list.size() ? list.get(index) : null;
+            }
+            case "LRANGE" -> {
+                List<String> list = listAt(command.get(1), false);
+                int from = Math.max(0, normalize(Integer.parseInt(command.get(2)), list.size()));
+                int to = Math.min(list.size() - 1, normalize(Integer.parseInt(command.get(3)), list.size()));
+                yield from > to ? List.of() : new ArrayList<Object>(list.subList(from, to + 1));
+            }
+            case "SADD" -> {
+                Set<String> set = setAt(command.get(1));
+                long added = 0;
+                for (String member : command.subList(2, command.size())) {
+                    added += set.add(member) ? 1 : 0;
+                }
+                yield added;
+            }
+            case "SCRIPT" -> {
+                if (!command.get(1).equalsIgnoreCase("LOAD")) {
+                    throw new CommandException("ERR unsupported SCRIPT subcommand");
+                }
+                String sha = sha1(command.get(2));
+                scripts.put(sha, command.get(2));
+                yield sha;
+            }
+            case "EVAL" -> {
+                scripts.put(sha1(command.get(1)), command.get(1));
+                yield eval(command.get(1), command);
+            }
+            case "EVALSHA" -> {
+                String source = scripts.get(command.get(1).toLowerCase(Locale.ROOT));
+                if (source == null) {
+                    throw new CommandException("NOSCRIPT No matching script. Please use EVAL.");
+                }
+                yield eval(source, command);
+            }
+            default -> throw new CommandException("ERR unknown command '" + name + "'");
+        };
+    }
+
+    private Object eval(String source, List<String> command) {
+        int keyCount = Integer.parseInt(command.get(2));
+        LuaTable keys = new LuaTable();
+        LuaTable argv = new LuaTable();
+        for (int i = 0; i < keyCount; i++) {
+            keys.set(i + 1, LuaValue.valueOf(command.get(3 + i)));
+        }
+        for (int i = 3 + keyCount; i < command.size(); i++) {
+            argv.set(i - 2 - keyCount, LuaValue.valueOf(command.get(i)));
+        }
+        lua.set("KEYS", keys);
+        lua.set("ARGV", argv);
+        try {
+            return fromLua(lua.load(source, "script").call());
+        } catch (LuaError ex) {
+            throw new CommandException("ERR " + ex.getMessage());
+        }
+    }
+
+    private String stringAt(String key) {
+        Object value = data.get(key);
+        if (value != null && !(value instanceof String)) {
+            throw new CommandException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return (String) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> listAt(String key, boolean create) {
+        Object value = create ? data.computeIfAbsent(key, ignored -> new ArrayList<String>()) : data.get(key);
+        if (value == null) {
+            return List.of();
+        }
+        if (!(value instanceof List<?>)) {
+            throw new CommandException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return (List<String>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> setAt(String key) {
+        Object value = data.computeIfAbsent(key, ignored -> new LinkedHashSet<String>());
+        if (!(value instanceof Set<?>)) {
+            throw new CommandException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+        return (Set<String>) value;
+    }
+
+    private static int normalize(int index, int size) {
+        return index < 0 ? size + index : index;
+    }
+
+    private static LuaValue toLua(Object reply) {
+        if (reply == null) {
+            return LuaValue.FALSE;
+        }
+        if (reply instanceof Long value) {
+            return LuaInteger.valueOf(value);
+        }
+        if (reply instanceof Status status) {
+            LuaTable table = new LuaTable();
+            table.set("ok", status.value());
+            return table;
+        }
+        if (reply instanceof List<?> values) {
+            LuaTable table = new LuaTable();
+            for (int i = 0; i < values.size(); i++) {
+                table.set(i + 1, toLua(values.get(i)));
+            }
+            return table;
+        }
+        return LuaValue.valueOf((String) reply);
+    }
+
+    private static Object fromLua(LuaValue value) {
+        return switch (value.type()) {
+            case LuaValue.TNUMBER -> value.tolong();
+            case LuaValue.TSTRING -> value.tojstring();
+            case LuaValue.TBOOLEAN -> value.toboolean() ? 1L : null;
+            case LuaValue.TTABLE -> {
+                List<Object> values = new ArrayList<>();
+                for (int i = 1; !value.get(i).isnil(); i++) {
+                    values.add(fromLua(value.get(i)));
+                }
+                yield values;
+            }
+            default -> null;
+        };
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header.isEmpty() || header.charAt(0) != '*') {
+            return List.of(header.trim().split("\\s+"));
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<String> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] bytes = in.readNBytes(length);
+            in.readNBytes(2);
+            command.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int previous = -1;
+        while (true) {
+            int next = in.read();
+            if (next < 0) {
+                throw new EOFException();
+            }
+            if (previous == '\r' && next == '\n') {
+                byte[] bytes = line.toByteArray();
+                return new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+            }
+            line.write(next);
+            previous = next;
+        }
+    }
+
+    private static void write(OutputStream out, Object reply) throws IOException {
+        if (reply == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+        } else if (reply instanceof Status status) {
+            out.write(("+" + status.value() + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof CommandException error) {
+            out.write(("-" + error.getMessage() + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof Long value) {
+            out.write((":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        } else if (reply instanceof List<?> values) {
+            out.write(("*" + values.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (Object value : values) {
+                write(out, value);
+            }
+        } else {
+            byte[] bytes = ((String) reply).getBytes(StandardCharsets.UTF_8);
+            out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static String sha1(String source) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private record Status(String value) {
+    }
+
+    private static final class CommandException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        CommandException(String message) {
+            super(message);
+        }
+    }
+}
@@ -14,46 +14,44 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class NextRandomCardServiceLanguageFallbackTest {
 
     @Mock
-    private CardRepository cardRepository;
+    private CardCatalogService cardCatalogService;
 
     @Mock
     private GameHistoryStore gameHistoryStore;
 
+    @Mock
+    private SelectionJournal selectionJournal;
+
     private NextRandomCardService service;
 
     @BeforeEach
     void setUp() {
-        service = new NextRandomCardService(cardRepository, gameHistoryStore);
+        service = new NextRandomCardService(cardCatalogService, gameHistoryStore, selectionJournal);
     }
 
     @Test
     void fallsBackToEnglishWhenRequestedLanguageHasNoDeckPool() {
-        Card englishCard = card("en-card-1", "History", "OPEN");
-        englishCard.setLanguage("en");
+        Card englishCard = card("en-card-1", "History", "OPEN", "en", "smartiq-v2");
 
-        when(gameHistoryStore.readRecent(eq("game-1"), anyInt())).thenReturn(List.of());
-        when(cardRepository.findDeckPool(eq("et"), eq((String) null), anyList())).thenReturn(List.of());
-        when(cardRepository.findDeckPool(eq("en"), eq((String) null), anyList())).thenReturn(List.of(englishCard));
+        when(gameHistoryStore.snapshot("game-1")).thenReturn(GameHistory.EMPTY);
+        when(gameHistoryStore.compareAndAppend(eq("game-1"), eq(GameHistory.EMPTY), anyList(), anyInt())).thenReturn(true);
+        when(cardCatalogService.current()).thenReturn(CardCatalog.of(List.of(englishCard)));
 
-        Card selected = service.nextRandom("et", "game-1", null);
+        CardResponse selected = service.nextRandom("et", "game-1", null);
 
-        assertThat(selected.getId()).isEqualTo("en-card-1");
-        assertThat(selected.getLanguage()).isEqualTo("en");
-        verify(cardRepository).findDeckPool(eq("et"), eq((String) null), anyList());
-        verify(cardRepository).findDeckPool(eq("en"), eq((String) null), anyList());
+        assertThat(selected.id()).isEqualTo("en-card-1");
+        assertThat(selected.language()).isEqualTo("en");
     }
 
     @Test
     void keepsNotFoundWhenBothRequestedAndFallbackLanguageAreEmpty() {
-        when(cardRepository.findDeckPool(eq("et"), eq((String) null), anyList())).thenReturn(List.of());
-        when(cardRepository.findDeckPool(eq("en"), eq((String) null), anyList())).thenReturn(List.of());
+        when(cardCatalogService.current()).thenReturn(CardCatalog.empty());
 
         assertThatThrownBy(() -> service.nextRandom("et", "game-2", null))
                 .isInstanceOf(NoSuchElementException.class)
@@ -62,25 +60,28 @@ class NextRandomCardServiceLanguageFallbackTest {
 
     @Test
     void fallbackPoolStillUsesAllowedSourcesOnly() {
-        Card allowedEnglishCard = card("en-allowed-1", "History", "OPEN");
-        allowedEnglishCard.setLanguage("en");
-        allowedEnglishCard.setSource("smartiq-v2");
+        Card allowedEnglishCard = card("en-allowed-1", "History", "OPEN", "en", "smartiq-v2");
+        Card deprecatedEnglishCard = card("en-deprecated-1", "History", "OPEN", "en", "smartiq-factory");
 
-        when(gameHistoryStore.readRecent(eq("game-3"), anyInt())).thenReturn(List.of());
-        when(cardRepository.findDeckPool(eq("et"), eq((String) null), anyList())).thenReturn(List.of());
-        when(cardRepository.findDeckPool(eq("en"), eq((String) null), anyList())).thenReturn(List.of(allowedEnglishCard));
+        when(gameHistoryStore.snapshot("game-3")).thenReturn(GameHistory.EMPTY);
+        when(gameHistoryStore.compareAndAppend(eq("game-3"), eq(GameHistory.EMPTY), anyList(), anyInt())).thenReturn(true);
+        when(cardCatalogService.current()).thenReturn(CardCatalog.of(List.of(allowedEnglishCard, deprecatedEnglishCard)));
 
-        Card selected = service.nextRandom("et", "game-3", null);
+        for (int i = 0; i < 10; i++) {
+            CardResponse selected = service.nextRandom("et", "game-3", null);
 
-        assertThat(selected.getId()).isEqualTo("en-allowed-1");
-        assertThat(selected.getSource()).isEqualTo("smartiq-v2");
+            assertThat(selected.id()).isEqualTo("en-allowed-1");
+            assertThat(selected.source()).isEqualTo("smartiq-v2");
+        }
     }
 
-    private static Card card(String id, String topic, String category) {
+    private static Card card(String id, String topic, String category, String language, String source) {
         Card card = new Card();
         card.setId(id);
         card.setTopic(topic);
         card.setCategory(category);
+        card.setLanguage(language);
+        card.setSource(source);
         return card;
     }
 }
@@ -3,23 +3,27 @@ package com.smartiq.backend.card;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class NextRandomCardServiceTest {
 
     @Test
     void avoidsSameCategoryTopicAndRecentCardWhenAlternativesExist() {
-        Card lastCard = card("card-1", "History", "TRUE_FALSE");
+        CardResponse lastCard = card("card-1", "History", "TRUE_FALSE");
         DeckCardMeta lastMeta = new DeckCardMeta(
-                lastCard.getId(),
+                lastCard.id(),
                 NextRandomCardService.resolveCategory(lastCard),
-                lastCard.getTopic()
+                lastCard.topic()
         );
 
-        List<Card> pool = List.of(
+        List<CardResponse> pool = List.of(
                 card("card-1", "History", "TRUE_FALSE"),
                 card("card-2", "History", "NUMBER"),
                 card("card-3", "Sports", "TRUE_FALSE"),
@@ -27,40 +31,162 @@ class NextRandomCardServiceTest {
         );
 
         List<String> relaxed = new ArrayList<>();
-        Card selected = NextRandomCardService.pickWithRelaxation(pool, lastMeta, Set.of("card-1"), relaxed);
+        CardResponse selected = NextRandomCardService.pickWithRelaxation(DeckPool.of(pool), lastMeta, Set.of("card-1"), relaxed);
 
-        assertThat(selected.getId()).isEqualTo("card-4");
+        assertThat(selected.id()).isEqualTo("card-4");
         assertThat(NextRandomCardService.resolveCategory(selected)).isNotEqualTo("TRUE_FALSE");
-        assertThat(selected.getTopic()).isNotEqualTo("History");
+        assertThat(selected.topic()).isNotEqualTo("History");
         assertThat(relaxed).isEmpty();
     }
 
     @Test
     void relaxesConstraintsInOrderWhenPoolIsTooSmall() {
-        Card lastCard = card("card-a", "History", "TRUE_FALSE");
+        CardResponse lastCard = card("card-a", "History", "TRUE_FALSE");
         DeckCardMeta lastMeta = new DeckCardMeta(
-                lastCard.getId(),
+                lastCard.id(),
                 NextRandomCardService.resolveCategory(lastCard),
-                lastCard.getTopic()
+                lastCard.topic()
         );
 
-        List<Card> pool = List.of(
+        List<CardResponse> pool = List.of(
                 card("card-a", "History", "TRUE_FALSE"),
                 card("card-b", "History", "TRUE_FALSE")
         );
 
         List<String> relaxed = new ArrayList<>();
-        Card selected = NextRandomCardService.pickWithRelaxation(pool, lastMeta, Set.of("card-a", "card-b"), relaxed);
+        CardResponse selected = NextRandomCardService.pickWithRelaxation(DeckPool.of(pool), lastMeta, Set.of("card-a", "card-b"), relaxed);
 
         assertThat(pool).contains(selected);
         assertThat(relaxed).containsExactly("cardId", "topic", "category");
     }
 
-    private static Card card(String id, String topic, String subtopic) {
-        Card card = new Card();
-        card.setId(id);
-        card.setTopic(topic);
-        card.setSubtopic(subtopic);
-        return card;
+    @Test
+    void findsSingleEligibleCardInLargePoolWithoutRelaxing() {
+        DeckCardMeta lastMeta = new DeckCardMeta("card-0", "TRUE_FALSE", "History");
+        List<CardResponse> pool = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            pool.add(card("card-" + i, "History", "TRUE_FALSE"));
+        }
+        pool.add(card("card-eligible", "Science", "NUMBER"));
+
+        for (int i = 0; i < 50; i++) {
+            List<String> relaxed = new ArrayList<>();
+            CardResponse selected = NextRandomCardService.pickWithRelaxation(DeckPool.of(pool), lastMeta, Set.of("card-0"), relaxed);
+
+            assertThat(selected.id()).isEqualTo("card-eligible");
+            assertThat(relaxed).isEmpty();
+        }
+    }
+
+    @Test
+    void batchPlansAlternatingSequenceAndRecordsItInHistory() {
+        List<Card> bank = new ArrayList<>();
+        String[] categories = {"TRUE_FALSE", "NUMBER", "ORDER", "OPEN"};
+        String[] topics = {"History", "Science", "Sports"};
+        for (int i = 0; i < 40; i++) {
+            Card entity = new Card();
+            entity.setId("card-" + i);
+            entity.setTopic(topics[i % topics.length]);
+            entity.setCategory(categories[i % categories.length]);
+            entity.setLanguage("en");
+            entity.setSource("smartiq-v2");
+            bank.add(entity);
+        }
+        CardCatalogService catalogService = mock(CardCatalogService.class);
+        when(catalogService.current()).thenReturn(CardCatalog.of(bank));
+        InMemoryGameHistoryStore historyStore = new InMemoryGameHistoryStore();
+        NextRandomCardService service = new NextRandomCardService(catalogService, historyStore, mock(SelectionJournal.class));
+
+        List<CardResponse> batch = service.nextRandomBatch("en", "game-batch", null, 20);
+
+        assertThat(batch).hasSize(20);
+        assertThat(batch).extracting(CardResponse::id).doesNotHaveDuplicates();
+        for (int i = 1; i < batch.size(); i++) {
+            assertThat(batch.get(i).category()).isNotEqualTo(batch.get(i - 1).category());
+            assertThat(batch.get(i).topic()).isNotEqualTo(batch.get(i - 1).topic());
+        }
+        assertThat(historyStore.snapshot("game-batch").recent(NextRandomCardService.LAST_K_DEFAULT))
+                .extracting(DeckCardMeta::cardId)
+                .containsExactlyElementsOf(batch.stream().map(CardResponse::id).toList());
+    }
+
+    @Test
+    void batchReplansAgainstHistoryWrittenByConcurrentRequests() {
+        CardCatalogService catalogService = mock(CardCatalogService.class);
+        when(catalogService.current()).thenReturn(CardCatalog.of(alternatingBank(4)));
+        InMemoryGameHistoryStore historyStore = new InMemoryGameHistoryStore() {
+            private int races = 3;
+
+            @Override
+            public boolean compareAndAppend(String gameId, GameHistory expected, List<DeckCardMeta> cardMetas, int maxSize) {
+                if (races > 0) {
+                    races -= 1;
+                    super.compareAndAppend(gameId, snapshot(gameId), List.of(cardMetas.get(0)), maxSize);
+                    return false;
+                }
+                return super.compareAndAppend(gameId, expected, cardMetas, maxSize);
+            }
+        };
+        NextRandomCardService service = new NextRandomCardService(catalogService, historyStore, mock(SelectionJournal.class));
+
+        CardResponse card = service.nextRandom("en", "game-race", null);
+
+        List<String> history = historyStore.snapshot("game-race").recent(NextRandomCardService.LAST_K_DEFAULT).stream()
+                .map(DeckCardMeta::cardId)
+                .toList();
+        assertThat(history).hasSize(4).doesNotHaveDuplicates().endsWith(card.id());
+    }
+
+    @Test
+    void batchFailsInsteadOfCommittingStalePlanWhenRacesKeepLosing() {
+        CardCatalogService catalogService = mock(CardCatalogService.class);
+        when(catalogService.current()).thenReturn(CardCatalog.of(alternatingBank(4)));
+        InMemoryGameHistoryStore historyStore = new InMemoryGameHistoryStore() {
+            @Override
+            public boolean compareAndAppend(String gameId, GameHistory expected, List<DeckCardMeta> cardMetas, int maxSize) {
+                return false;
+            }
+        };
+        NextRandomCardService service = new NextRandomCardService(catalogService, historyStore, mock(SelectionJournal.class));
+
+        assertThatThrownBy(() -> service.nextRandomBatch("en", "game-contended", null, 2))
+                .isInstanceOf(ConcurrentModificationException.class);
+        assertThat(historyStore.snapshot("game-contended").recent(NextRandomCardService.LAST_K_DEFAULT)).isEmpty();
+    }
+
+    @Test
+    void seededDeckKeepsLastKWindowAcrossPassBoundaries() {
+        DeckPool pool = CardCatalog.of(alternatingBank(60)).deckPool("en", null);
+        List<String> served = new ArrayList<>();
+        long position = 0;
+        for (int i = 0; i < 200; i++) {
+            long picked = NextRandomCardService.seededPosition(pool, 42L, position);
+            served.add(pool.card(SeededDeckPermutation.indexAt(pool.size(), 42L, picked)).id());
+            position = picked + 1;
+        }
+
+        for (int from = 0; from + NextRandomCardService.LAST_K_DEFAULT <= served.size(); from++) {
+            assertThat(served.subList(from, from + NextRandomCardService.LAST_K_DEFAULT)).doesNotHaveDuplicates();
+        }
+    }
+
+    private static List<Card> alternatingBank(int size) {
+        String[] categories = {"TRUE_FALSE", "NUMBER", "ORDER", "OPEN"};
+        String[] topics = {"History", "Science", "Sports", "Art"};
+        List<Card> bank = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Card entity = new Card();
+            entity.setId("card-" + i);
+            entity.setTopic(topics[i % topics.length]);
+            entity.setCategory(categories[i % categories.length]);
+            entity.setLanguage("en");
+            entity.setSource("smartiq-v2");
+            bank.add(entity);
+        }
+        return bank;
+    }
+
+    private static CardResponse card(String id, String topic, String subtopic) {
+        return new CardResponse(id, id, topic, subtopic, null, "en", null, List.of(), null, null, null, null, null, null);
     }
 }
@@ -0,0 +1,69 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.QuestionPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoolRefillSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PoolRefillScheduler scheduler =
+            new PoolRefillScheduler(new QuestionPoolProperties(true, 1, 1, 10, 1, 3, 1, 0.8), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void runsMostDepletedKeysFirstAndCoalescesRepeatedTriggers() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        scheduler.submit(key("blocker"), 0.0, () -> {
+            started.countDown();
+            await(blocker);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        scheduler.submit(key("half"), 0.5, () -> record(order, "half", finished));
+        scheduler.submit(key("empty"), 0.0, () -> record(order, "empty", finished));
+        scheduler.submit(key("half"), 0.1, () -> record(order, "duplicate", finished));
+        scheduler.submit(key("full"), 0.9, () -> record(order, "full", finished));
+        assertThat(scheduler.submit(key("overflow"), 0.0, () -> record(order, "overflow", finished))).isFalse();
+
+        blocker.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(order).containsExactly("empty", "half", "full");
+        assertThat(meterRegistry.counter("smartiq.pool.refill.coalesced").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("smartiq.pool.refill.rejected").count()).isEqualTo(1.0);
+    }
+
+    private static void record(List<String> order, String name, CountDownLatch finished) {
+        order.add(name);
+        finished.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static QuestionPoolKey key(String topic) {
+        return new QuestionPoolKey(topic, "1", "en");
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.PoolSizingProperties;
+import com.smartiq.backend.config.QuestionPoolProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoolSizerTest {
+
+    private static final QuestionPoolProperties POOL_PROPERTIES = new QuestionPoolProperties(true, 1, 800, 1200, 1, 10, 1, 0.8);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void hotKeysGrowTowardsCeilingWhileColdKeysStayAtFloor() {
+        PoolSizer sizer = new PoolSizer(POOL_PROPERTIES, new PoolSizingProperties(true, 20, 50, 0, 10, 30, 2.0), clock::get);
+        PoolDemand hot = sizer.demandFor(key("math"));
+        PoolDemand cold = sizer.demandFor(key("art"));
+        hot.recordRefillLatency(TimeUnit.MILLISECONDS.toNanos(500));
+
+        for (int second = 0; second < 30; second++) {
+            for (int i = 0; i < 20; i++) {
+                hot.recordRequest();
+            }
+            advance(1);
+            assertThat(sizer.recomputeIfDue()).isTrue();
+        }
+
+        assertThat(hot.rate()).isBetween(18.0, 20.0);
+        assertThat(hot.watermark()).isEqualTo(20);
+        assertThat(hot.target()).isBetween(550, 620);
+        assertThat(cold.watermark()).isEqualTo(20);
+        assertThat(cold.target()).isEqualTo(50);
+        assertThat(sizer.recomputeIfDue()).isFalse();
+    }
+
+    @Test
+    void globalCapScalesTargetsButKeepsFloors() {
+        PoolSizer sizer = new PoolSizer(POOL_PROPERTIES, new PoolSizingProperties(true, 20, 50, 700, 1, 30, 2.0), clock::get);
+        PoolDemand first = sizer.demandFor(key("math"));
+        PoolDemand second = sizer.demandFor(key("history"));
+        PoolDemand cold = sizer.demandFor(key("art"));
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 100; i++) {
+                first.recordRequest();
+                second.recordRequest();
+            }
+            advance(1);
+            sizer.recomputeIfDue();
+        }
+
+        assertThat(first.target() + second.target() + cold.target()).isLessThanOrEqualTo(700);
+        assertThat(first.target()).isGreaterThan(cold.target());
+        assertThat(cold.target()).isEqualTo(50);
+        assertThat(sizer.oversized(cold, 120)).isTrue();
+        assertThat(sizer.oversized(cold, 90)).isFalse();
+    }
+
+    @Test
+    void fixedSizingUsesConfiguredWatermarkAndTarget() {
+        PoolSizer sizer = new PoolSizer(POOL_PROPERTIES, new PoolSizingProperties(false, 20, 50, 0, 60, 30, 2.0), clock::get);
+        PoolDemand demand = sizer.demandFor(key("math"));
+        advance(5);
+
+        assertThat(sizer.recomputeIfDue()).isFalse();
+        assertThat(demand.watermark()).isEqualTo(800);
+        assertThat(demand.target()).isEqualTo(1200);
+        assertThat(sizer.oversized(demand, 5000)).isFalse();
+    }
+
+    private void advance(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static QuestionPoolKey key(String topic) {
+        return new QuestionPoolKey(topic, "2", "en");
+    }
+}
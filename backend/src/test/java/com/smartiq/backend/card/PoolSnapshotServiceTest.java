@@ -0,0 +1,99 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.PoolSnapshotProperties;
+import com.smartiq.backend.config.QuestionPoolProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PoolSnapshotServiceTest {
+
+    private static final QuestionPoolProperties POOL_PROPERTIES = new QuestionPoolProperties(true, 1, 1, 10, 1, 10, 1, 0.8);
+    private static final QuestionPoolKey KEY = new QuestionPoolKey("math", "2", "en");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void restoresPoolContentsAndCountersForSameCatalogVersion() throws Exception {
+        CardCatalog catalog = catalog("Question");
+        InMemoryQuestionPoolStore original = new InMemoryQuestionPoolStore(POOL_PROPERTIES, mock(CardCatalogService.class));
+        original.poolForKey(KEY).fill(catalog, new int[]{catalog.ordinalOf("m2"), catalog.ordinalOf("m1")});
+        original.countersForKey(KEY).recordCacheHit();
+        service(original, catalog).write();
+
+        InMemoryQuestionPoolStore restarted = new InMemoryQuestionPoolStore(POOL_PROPERTIES, mock(CardCatalogService.class));
+        int restored = service(restarted, catalog).restore();
+
+        assertThat(restored).isEqualTo(1);
+        PoolEpoch epoch = restarted.poolForKey(KEY).epoch();
+        assertThat(List.of(epoch.card(catalog, 0).id(), epoch.card(catalog, 1).id())).containsExactly("m2", "m1");
+        assertThat(restarted.countersForKey(KEY).cacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresSnapshotTakenAgainstDifferentCatalog() throws Exception {
+        CardCatalog before = catalog("Question");
+        InMemoryQuestionPoolStore original = new InMemoryQuestionPoolStore(POOL_PROPERTIES, mock(CardCatalogService.class));
+        original.poolForKey(KEY).fill(before, new int[]{before.ordinalOf("m1")});
+        service(original, before).write();
+
+        InMemoryQuestionPoolStore restarted = new InMemoryQuestionPoolStore(POOL_PROPERTIES, mock(CardCatalogService.class));
+        int restored = service(restarted, catalog("Edited question")).restore();
+
+        assertThat(restored).isZero();
+        assertThat(restarted.poolForKey(KEY).isEmpty()).isTrue();
+    }
+
+    @Test
+    void treatsCorruptLengthsAsUnreadableSnapshot() throws Exception {
+        CardCatalog catalog = catalog("Question");
+        InMemoryQuestionPoolStore original = new InMemoryQuestionPoolStore(POOL_PROPERTIES, mock(CardCatalogService.class));
+        original.poolForKey(KEY).fill(catalog, new int[]{catalog.ordinalOf("m1")});
+        service(original, catalog).write();
+        Path snapshot = tempDir.resolve("pools.snapshot");
+        byte[] written = Files.readAllBytes(snapshot);
+
+        for (int corruptLength : new int[]{Integer.MAX_VALUE, -5}) {
+            byte[] corrupt = written.clone();
+            // Header: magic, format version, catalog version, key count; the key's topic length follows.
+            ByteBuffer.wrap(corrupt).putInt(Integer.BYTES * 2 + Long.BYTES + Integer.BYTES, corruptLength);
+            Files.write(snapshot, corrupt);
+
+            InMemoryQuestionPoolStore restarted = new InMemoryQuestionPoolStore(POOL_PROPERTIES, mock(CardCatalogService.class));
+            assertThat(service(restarted, catalog).restore()).isZero();
+            assertThat(restarted.poolSize(KEY)).isZero();
+        }
+    }
+
+    private PoolSnapshotService service(QuestionPoolStore store, CardCatalog catalog) {
+        CardCatalogService catalogService = mock(CardCatalogService.class);
+        when(catalogService.current()).thenReturn(catalog);
+        PoolSnapshotProperties properties = new PoolSnapshotProperties(tempDir.resolve("pools.snapshot").toString(), 0);
+        return new PoolSnapshotService(properties, POOL_PROPERTIES, store, catalogService);
+    }
+
+    private static CardCatalog catalog(String questionPrefix) {
+        return CardCatalog.of(List.of(entity("m1", questionPrefix), entity("m2", questionPrefix), entity("m3", questionPrefix)));
+    }
+
+    private static Card entity(String id, String questionPrefix) {
+        Card card = new Card();
+        card.setId(id);
+        card.setTopic("Math");
+        card.setCategory("OPEN");
+        card.setDifficulty("2");
+        card.setLanguage("en");
+        card.setSource("smartiq-v2");
+        card.setQuestion(questionPrefix + " " + id);
+        return card;
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.PoolSizingProperties;
+import com.smartiq.backend.config.QuestionPoolProperties;
+import com.smartiq.backend.config.SessionDedupProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuestionPoolServiceTest {
+
+    private static final int MIN_TARGET = 3;
+    private static final QuestionPoolProperties POOL_PROPERTIES = new QuestionPoolProperties(true, 1, 800, 1200, 1, 100, 1, 0.8);
+    private static final PoolSizingProperties SIZING_PROPERTIES =
+            new PoolSizingProperties(true, 1, MIN_TARGET, 2_000_000, 60, 30, 2.0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void sessionReadingPastAnAdaptiveTargetKeepsBeingServedFromRotatedEpochs() {
+        CardCatalog catalog = CardCatalog.of(IntStream.range(0, 200).mapToObj(i -> card(i, "2")).toList());
+        QuestionPoolService service = service(catalog, new PoolSizer(POOL_PROPERTIES, SIZING_PROPERTIES));
+        service.warmup();
+
+        Set<String> served = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            served.add(service.nextCard("Math", "2", "en", "session-1").id());
+        }
+
+        assertThat(served).hasSize(20);
+        assertThat(meterRegistry.counter("smartiq.pool.cache.hits", "topic", "math", "difficulty", "2", "language", "en")
+                .count()).isGreaterThan(2.0 * MIN_TARGET);
+    }
+
+    @Test
+    void wildcardRequestRecordsDemandOnOneConcreteKey() {
+        List<String> difficulties = List.of("1", "2", "3", "4");
+        CardCatalog catalog = CardCatalog.of(IntStream.range(0, 80)
+                .mapToObj(i -> card(i, difficulties.get(i % difficulties.size())))
+                .toList());
+        AtomicLong clock = new AtomicLong();
+        PoolSizer sizer = new PoolSizer(POOL_PROPERTIES, SIZING_PROPERTIES, clock::get);
+        QuestionPoolService service = service(catalog, sizer);
+        service.warmup();
+
+        int requests = 20;
+        for (int i = 0; i < requests; i++) {
+            service.nextCard("Math", null, "en", "session-1");
+        }
+
+        long windowNanos = TimeUnit.SECONDS.toNanos(SIZING_PROPERTIES.windowSeconds());
+        double totalRate = 0;
+        for (String difficulty : difficulties) {
+            PoolDemand demand = sizer.demandFor(new QuestionPoolKey("math", difficulty, "en"));
+            demand.sample(windowNanos, windowNanos);
+            totalRate += demand.rate();
+        }
+        double alpha = 1 - Math.exp(-1);
+        assertThat(totalRate).isCloseTo(alpha * requests / SIZING_PROPERTIES.windowSeconds(), within(1e-9));
+    }
+
+    private QuestionPoolService service(CardCatalog catalog, PoolSizer sizer) {
+        CardCatalogService catalogService = mock(CardCatalogService.class);
+        when(catalogService.current()).thenReturn(catalog);
+        PoolRefillScheduler refillScheduler = mock(PoolRefillScheduler.class);
+        when(refillScheduler.submit(any(), anyDouble(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, Runnable.class).run();
+            return true;
+        });
+        return new QuestionPoolService(
+                mock(CardRepository.class),
+                catalogService,
+                new SessionCardTrackerService(new SessionDedupProperties(true, 120, 100)),
+                POOL_PROPERTIES,
+                new InMemoryQuestionPoolStore(POOL_PROPERTIES, catalogService),
+                meterRegistry,
+                mock(SelectionJournal.class),
+                refillScheduler,
+                mock(PoolSnapshotService.class),
+                sizer
+        );
+    }
+
+    private static Card card(int number, String difficulty) {
+        Card card = new Card();
+        card.setId("math-" + number);
+        card.setTopic("Math");
+        card.setCategory("OPEN");
+        card.setDifficulty(difficulty);
+        card.setLanguage("en");
+        card.setSource("smartiq-v2");
+        card.setQuestion("Question " + number);
+        return card;
+    }
+}
@@ -0,0 +1,170 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.QuestionPoolProperties;
+import com.smartiq.backend.config.RedisStoreProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.JedisPooled;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisQuestionPoolStoreTest {
+
+    private static final QuestionPoolKey KEY = new QuestionPoolKey("science", "1", "en");
+    private static final CardCatalog CATALOG = catalog(6);
+
+    private static InProcessRespServer server;
+    private final List<RedisQuestionPoolStore> stores = new ArrayList<>();
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new InProcessRespServer();
+    }
+
+    @AfterAll
+    static void stopServer() throws Exception {
+        server.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(RedisQuestionPoolStore::close);
+        server.flushAll();
+    }
+
+    @Test
+    void fillIsSharedDeduplicatedAndCappedAcrossInstances() {
+        CardPool first = store(4).poolForKey(KEY);
+        CardPool second = store(4).poolForKey(KEY);
+
+        assertThat(first.fill(CATALOG, ordinals("s1", "s2", "s1"))).isEqualTo(2);
+        assertThat(second.fill(CATALOG, ordinals("s2", "s3", "s4", "s5"))).isEqualTo(2);
+
+        assertThat(ids(first.epoch())).containsExactly("s1", "s2", "s3", "s4");
+        assertThat(ids(second.epoch())).containsExactly("s1", "s2", "s3", "s4");
+        assertThat(first.epoch().number()).isEqualTo(second.epoch().number());
+    }
+
+    @Test
+    void concurrentSharedReadsFromAllInstancesHandOutEachPositionOnce() throws Exception {
+        CardPool first = store(3).poolForKey(KEY);
+        CardPool second = store(3).poolForKey(KEY);
+        first.fill(CATALOG, ordinals("s1", "s2", "s3"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> reads = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                CardPool pool = i % 2 == 0 ? first : second;
+                reads.add(executor.submit(() -> pool.nextShared(CATALOG, 10).id()));
+            }
+            List<String> served = new ArrayList<>();
+            for (Future<String> read : reads) {
+                served.add(read.get());
+            }
+
+            assertThat(served.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting())))
+                    .isEqualTo(Map.of("s1", 10L, "s2", 10L, "s3", 10L));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(second.rotationRequested()).isTrue();
+    }
+
+    @Test
+    void rotationIsAppliedOnceAndSeenByOtherInstances() {
+        CardPool first = store(2).poolForKey(KEY);
+        CardPool second = store(2).poolForKey(KEY);
+        first.fill(CATALOG, ordinals("s1", "s2"));
+        long before = second.epoch().number();
+
+        assertThat(first.rotate(CATALOG, ordinals("s3", "s4"))).isEqualTo(2);
+        assertThat(second.rotate(CATALOG, ordinals("s5", "s6"))).isZero();
+
+        assertThat(second.epoch().number()).isEqualTo(before + 1);
+        assertThat(ids(second.epoch())).containsExactly("s3", "s4");
+        assertThat(second.rotationRequested()).isFalse();
+    }
+
+    @Test
+    void reloadsScriptsAfterServerLosesThem() {
+        CardPool pool = store(4).poolForKey(KEY);
+        pool.fill(CATALOG, ordinals("s1"));
+        server.flushAll();
+
+        assertThat(pool.fill(CATALOG, ordinals("s2"))).isEqualTo(1);
+        assertThat(pool.nextShared(CATALOG, 10).id()).isEqualTo("s2");
+    }
+
+    @Test
+    void fillSyncsAgainstTheCatalogItWasGiven() {
+        CardCatalogService catalogService = catalogService();
+        CardPool pool = store(4, catalogService).poolForKey(KEY);
+        CardCatalog reloaded = catalog(7);
+
+        assertThat(pool.fill(reloaded, new int[]{reloaded.ordinalOf("s7")})).isEqualTo(1);
+
+        verify(catalogService, never()).current();
+    }
+
+    private RedisQuestionPoolStore store(int capacity) {
+        return store(capacity, catalogService());
+    }
+
+    private RedisQuestionPoolStore store(int capacity, CardCatalogService catalogService) {
+        RedisQuestionPoolStore store = new RedisQuestionPoolStore(
+                new JedisPooled("localhost", server.port()),
+                new QuestionPoolProperties(true, 1, 1, capacity, 1, 10, 1, 0.8),
+                new RedisStoreProperties("redis://localhost:" + server.port(), "test", 0),
+                catalogService);
+        stores.add(store);
+        return store;
+    }
+
+    private static CardCatalogService catalogService() {
+        CardCatalogService catalogService = mock(CardCatalogService.class);
+        when(catalogService.current()).thenReturn(CATALOG);
+        return catalogService;
+    }
+
+    private static List<String> ids(PoolEpoch epoch) {
+        return IntStream.range(0, epoch.size()).mapToObj(i -> epoch.card(CATALOG, i).id()).toList();
+    }
+
+    private static int[] ordinals(String... ids) {
+        return Arrays.stream(ids).mapToInt(CATALOG::ordinalOf).toArray();
+    }
+
+    private static CardCatalog catalog(int size) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            Card card = new Card();
+            card.setId("s" + i);
+            card.setTopic("Science");
+            card.setCategory("OPEN");
+            card.setDifficulty("1");
+            card.setLanguage("en");
+            card.setSource("smartiq-v2");
+            card.setQuestion("Question s" + i);
+            cards.add(card);
+        }
+        return CardCatalog.of(cards);
+    }
+}
@@ -0,0 +1,46 @@
+package com.smartiq.backend.card;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeededDeckPermutationTest {
+
+    @Test
+    void eachPassIsAPermutationOfThePool() {
+        for (int size : new int[]{1, 2, 3, 7, 64, 65, 1000}) {
+            for (long pass = 0; pass < 3; pass++) {
+                Set<Integer> seen = new HashSet<>();
+                for (int i = 0; i < size; i++) {
+                    int index = SeededDeckPermutation.indexAt(size, 42L, pass * size + i);
+                    assertThat(index).isBetween(0, size - 1);
+                    seen.add(index);
+                }
+                assertThat(seen).hasSize(size);
+            }
+        }
+    }
+
+    @Test
+    void isDeterministicPerSeedAndDiffersAcrossSeeds() {
+        List<Integer> first = sequence(100, SeededDeckPermutation.seedFor("game-1"));
+        List<Integer> again = sequence(100, SeededDeckPermutation.seedFor("game-1"));
+        List<Integer> other = sequence(100, SeededDeckPermutation.seedFor("game-2"));
+
+        assertThat(first).isEqualTo(again);
+        assertThat(first).isNotEqualTo(other);
+    }
+
+    private static List<Integer> sequence(int size, long seed) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            indexes.add(SeededDeckPermutation.indexAt(size, seed, i));
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,47 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.SelectionJournalProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelectionJournalTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void drainAggregatesDeckSelectionsAndEmptyPoolsIntoMetrics() {
+        SelectionJournal journal = new SelectionJournal(new SelectionJournalProperties(16, 60, 0.0), meterRegistry);
+
+        journal.recordDeckSelection("game-1", card("c1"), "OPEN", "en", 10, List.of(), 1, 2_000);
+        journal.recordDeckSelection("game-1", card("c2"), "OPEN", "en", 10, List.of("topic"), 1, 5_000);
+        journal.recordPoolEmpty(new QuestionPoolKey("history", "2", "en"));
+        journal.drain();
+
+        assertThat(meterRegistry.counter("smartiq.deck.selections", "relaxed", "none").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("smartiq.deck.selections", "relaxed", "topic").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.timer("smartiq.deck.selection.latency").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("smartiq.pool.empty",
+                "topic", "history", "difficulty", "2", "language", "en").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void producersLappingTheConsumerDropOldestEvents() {
+        SelectionJournal journal = new SelectionJournal(new SelectionJournalProperties(4, 60, 0.0), meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            journal.recordDeckSelection("game-1", card("c" + i), "OPEN", "en", 10, List.of(), 1, 1_000);
+        }
+        journal.drain();
+
+        assertThat(meterRegistry.counter("smartiq.deck.selections", "relaxed", "none").count()).isEqualTo(4.0);
+        assertThat(meterRegistry.counter("smartiq.journal.dropped").count()).isEqualTo(6.0);
+    }
+
+    private static CardResponse card(String id) {
+        return new CardResponse(id, id, "History", null, "OPEN", "en", null, List.of(), null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,143 @@
+package com.smartiq.backend.card;
+
+import com.smartiq.backend.config.QuestionPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SerializedPoolEpochTest {
+
+    private static final CardCatalog CATALOG = CardCatalog.of(
+            Arrays.stream(new String[]{"c1", "c2", "c3", "c4", "c5"}).map(SerializedPoolEpochTest::entity).toList());
+
+    @Test
+    void decodesEveryFieldOnServe() {
+        Card entity = entity("c1");
+        entity.setSubtopic("Rome");
+        entity.setCategory("MULTIPLE_CHOICE");
+        entity.setLanguage("et");
+        entity.setQuestion("Küsimus?");
+        entity.setOptions(List.of("A", "B", "Ö"));
+        entity.setCorrectIndex(2);
+        entity.setCreatedAt(Instant.parse("2024-05-01T10:15:30.123Z"));
+        entity.setCorrectFlags("[1,0,0]");
+        CardCatalog catalog = CardCatalog.of(List.of(entity));
+
+        SerializedPoolEpoch epoch = SerializedPoolEpoch.EMPTY.append(catalog, new int[]{0}, 10);
+
+        assertThat(epoch.card(0)).isEqualTo(catalog.card(0));
+        assertThat(epoch.card(0)).isNotSameAs(catalog.card(0));
+        assertThat(epoch.contains("c1")).isTrue();
+        assertThat(epoch.contains("c2")).isFalse();
+    }
+
+    @Test
+    void appendKeepsPositionsDeduplicatesAndCaps() {
+        SerializedPoolEpoch first = SerializedPoolEpoch.EMPTY.append(CATALOG, ordinals("c1", "c2", "c1"), 4);
+        SerializedPoolEpoch second = first.append(CATALOG, ordinals("c2", "c3", "c4", "c5"), 4);
+
+        assertThat(first.size()).isEqualTo(2);
+        assertThat(second.size()).isEqualTo(4);
+        assertThat(List.of(second.card(0).id(), second.card(1).id(), second.card(2).id(), second.card(3).id()))
+                .containsExactly("c1", "c2", "c3", "c4");
+        assertThat(second.contains("c5")).isFalse();
+        assertThat(first.card(1).id()).isEqualTo("c2");
+
+        SerializedPoolEpoch rotated = second.next(CATALOG, ordinals("c5"), 4);
+                assertThat(rotated.number()).isEqualTo(second.number() + 1);
+        assertThat(rotated.contains("c1")).isFalse();
+        assertThat(rotated.card(0).id()).isEqualTo("c5");
+    }
+
+    @Test
+    void offHeapStoreReportsDirectMemoryOfCurrentEpochs() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OffHeapQuestionPoolStore store = new OffHeapQuestionPoolStore(new QuestionPoolProperties(true, 1, 1, 10, 1, 10, 1, 0.8), mock(CardCatalogService.class), meterRegistry);
+        store.start();
+        try {
+            store.poolForKey(new QuestionPoolKey("history", "2", "en")).fill(CATALOG, ordinals("c1", "c2"));
+
+            assertThat(store.poolForKey(new QuestionPoolKey("history", "2", "en")).epoch()).isInstanceOf(SerializedPoolEpoch.class);
+            assertThat(meterRegistry.get("smartiq.pool.offheap.bytes").gauge().value()).isEqualTo(store.offHeapBytes()).isPositive();
+        } finally {
+            store.stop();
+        }
+    }
+
+    @Test
+    void appendFromNewestEpochWritesIntoSpareCapacity() {
+        SerializedPoolEpoch first = SerializedPoolEpoch.EMPTY.append(CATALOG, ordinals("c1", "c2"), 5);
+        SerializedPoolEpoch second = first.append(CATALOG, ordinals("c3"), 5);
+        SerializedPoolEpoch third = second.append(CATALOG, ordinals("c4"), 5);
+
+        assertThat(third.offHeapBytes()).isEqualTo(second.offHeapBytes());
+        assertThat(first.size()).isEqualTo(2);
+        assertThat(first.contains("c3")).isFalse();
+        assertThat(second.contains("c4")).isFalse();
+        assertThat(third.contains("c4")).isTrue();
+        assertThat(List.of(third.card(0).id(), third.card(1).id(), third.card(2).id(), third.card(3).id()))
+                .containsExactly("c1", "c2", "c3", "c4");
+    }
+
+    @Test
+    void appendFromOlderEpochCopiesWithoutDisturbingNewerOne() {
+        SerializedPoolEpoch first = SerializedPoolEpoch.EMPTY.append(CATALOG, ordinals("c1"), 5);
+        SerializedPoolEpoch newer = first.append(CATALOG, ordinals("c2"), 5);
+        SerializedPoolEpoch branch = first.append(CATALOG, ordinals("c3", "c2"), 5);
+
+        assertThat(newer.size()).isEqualTo(2);
+        assertThat(newer.card(1).id()).isEqualTo("c2");
+        assertThat(newer.contains("c3")).isFalse();
+        assertThat(branch.size()).isEqualTo(3);
+        assertThat(List.of(branch.card(0).id(), branch.card(1).id(), branch.card(2).id())).containsExactly("c1", "c3", "c2");
+        assertThat(first.contains("c2")).isFalse();
+    }
+
+    @Test
+    void buffersAreSizedFromTheFillRatherThanPoolCapacity() {
+        SerializedPoolEpoch small = SerializedPoolEpoch.EMPTY.append(CATALOG, ordinals("c1", "c2"), 1200);
+        SerializedPoolEpoch large = SerializedPoolEpoch.EMPTY.append(CATALOG, ordinals("c1", "c2"), 2);
+
+        assertThat(small.offHeapBytes()).isEqualTo(large.offHeapBytes());
+    }
+
+    @Test
+    void epochStopsResolvingAfterReloadAndNextAppendStartsNewEpoch() {
+        SerializedPoolEpoch stale = SerializedPoolEpoch.EMPTY.append(CATALOG, ordinals("c1", "c2"), 5);
+        CardCatalog reloaded = CardCatalog.of(
+                Arrays.stream(new String[]{"c2", "c3"}).map(SerializedPoolEpochTest::entity).toList());
+
+        assertThat(stale.readableWith(reloaded)).isFalse();
+        assertThat(stale.card(reloaded, 0)).isNull();
+        assertThat(stale.contains(reloaded, reloaded.ordinalOf("c2"))).isFalse();
+
+        SerializedPoolEpoch refilled = stale.append(reloaded, new int[]{reloaded.ordinalOf("c3")}, 5);
+
+        assertThat(refilled.number()).isEqualTo(stale.number() + 1);
+        assertThat(refilled.readableWith(reloaded)).isTrue();
+        assertThat(refilled.size()).isEqualTo(1);
+        assertThat(refilled.card(reloaded, 0).id()).isEqualTo("c3");
+    }
+
+    private static int[] ordinals(String... ids) {
+        return Arrays.stream(ids).mapToInt(CATALOG::ordinalOf).toArray();
+    }
+
+    private static Card entity(String id) {
+        Card card = new Card();
+        card.setId(id);
+        card.setTopic("History");
+        card.setCategory("OPEN");
+        card.setDifficulty("2");
+        card.setLanguage("en");
+        card.setSource("smartiq-v2");
+        card.setQuestion("Question " + id);
+        return card;
+    }
+}
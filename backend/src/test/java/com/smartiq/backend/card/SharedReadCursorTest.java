@@ -0,0 +1,145 @@
+package com.smartiq.backend.card;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedReadCursorTest {
+
+    @Test
+    void stripedReaderStealsFromSiblingsToCoverTheWholeEpochEachPass() {
+        AtomicInteger passes = new AtomicInteger();
+        SharedReadCursor cursor = new SharedReadCursor(4, 0, passes::incrementAndGet);
+        PoolEpoch epoch = epoch(10);
+
+        int[] positions = IntStream.range(0, 10).map(i -> cursor.next(epoch)).sorted().toArray();
+
+        assertThat(cursor.isStriped()).isTrue();
+        assertThat(positions).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(passes.get()).isZero();
+        cursor.next(epoch);
+        assertThat(passes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void stripesStartAFreshPassWhenTheEpochGrows() {
+        AtomicInteger passes = new AtomicInteger();
+        SharedReadCursor cursor = new SharedReadCursor(4, 0, passes::incrementAndGet);
+        PoolEpoch before = epoch(8);
+        for (int i = 0; i < 3; i++) {
+            cursor.next(before);
+        }
+        PoolEpoch grown = epoch(12);
+
+        int[] positions = IntStream.range(0, 12).map(i -> cursor.next(grown)).sorted().toArray();
+
+        assertThat(positions).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+        assertThat(passes.get()).isZero();
+        assertThat(cursor.next(before)).isBetween(0, 7);
+    }
+
+    @Test
+    void concurrentReadersServeEveryPositionEvenlyAcrossStripes() throws Exception {
+        AtomicInteger passes = new AtomicInteger();
+        SharedReadCursor cursor = new SharedReadCursor(4, 0, passes::incrementAndGet);
+        PoolEpoch epoch = epoch(16);
+        int threads = 8;
+        int readsPerThread = 16 * 100 / threads;
+        AtomicIntegerArray served = new AtomicIntegerArray(16);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < readsPerThread; i++) {
+                        served.incrementAndGet(cursor.next(epoch));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(IntStream.range(0, 16).map(served::get)).containsOnly(100);
+        assertThat(passes.get()).isEqualTo(99);
+    }
+
+    @Test
+    void staysOnSingleCounterUntilContended() {
+        AtomicInteger passes = new AtomicInteger();
+        SharedReadCursor cursor = new SharedReadCursor(4, 64, passes::incrementAndGet);
+        PoolEpoch epoch = epoch(3);
+
+        assertThat(IntStream.range(0, 4).map(i -> cursor.next(epoch))).containsExactly(0, 1, 2, 0);
+        assertThat(cursor.isStriped()).isFalse();
+        assertThat(passes.get()).isEqualTo(1);
+    }
+
+    @Test
+    void collisionsOnlyCountWithinTheirWindow() {
+        AtomicLong clock = new AtomicLong();
+        SharedReadCursor cursor = new SharedReadCursor(4, 8, () -> { }, clock::get);
+
+        for (int window = 0; window < 5; window++) {
+            for (int i = 0; i < 7; i++) {
+                cursor.collided();
+            }
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+            cursor.collided();
+        }
+
+        assertThat(cursor.isStriped()).isFalse();
+    }
+
+    @Test
+    void hotKeyFallsBackToSingleCounterOnceContentionStops() {
+        AtomicLong clock = new AtomicLong();
+        SharedReadCursor cursor = new SharedReadCursor(4, 8, () -> { }, clock::get);
+        PoolEpoch epoch = epoch(8);
+        for (int i = 0; i < 8; i++) {
+            cursor.collided();
+        }
+        assertThat(cursor.isStriped()).isTrue();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        int[] positions = IntStream.range(0, 9).map(i -> cursor.next(epoch)).toArray();
+
+        assertThat(cursor.isStriped()).isFalse();
+        assertThat(IntStream.of(positions).limit(8).sorted()).containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+    }
+
+    private static PoolEpoch epoch(int size) {
+        CardCatalog catalog = CardCatalog.of(IntStream.range(0, size).mapToObj(i -> {
+            Card card = new Card();
+            card.setId("c" + (char) ('a' + i));
+            card.setTopic("History");
+            card.setCategory("OPEN");
+            card.setDifficulty("1");
+            card.setLanguage("en");
+            card.setSource("smartiq-v2");
+            card.setQuestion("Question " + i);
+            return card;
+        }).toList());
+        return PoolEpoch.of(1, catalog, IntStream.range(0, size).toArray());
+    }
+}